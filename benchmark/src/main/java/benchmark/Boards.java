@@ -0,0 +1,44 @@
+package benchmark;
+
+import model.Direction;
+import model.Simulation;
+import model.World;
+
+/**
+ * Creates the worlds the benchmarks run on.
+ */
+final class Boards {
+	/** The seed of every benchmark world, so all runs play the same maze. */
+	static final long SEED = 42;
+	/** The directions the player cycles through. */
+	static final Direction[] MOVES = {Direction.LEFT, Direction.UP, Direction.RIGHT, Direction.DOWN};
+
+	/**
+	 * Not used, all methods are static.
+	 */
+	private Boards() {
+	}
+
+	/**
+	 * Creates a world of the given size whose game cannot end by winning:
+	 * the goal is put on a wall.
+	 * @param boardSize the size as {@code <width>x<height>}, e.g. {@code 28x30}
+	 * @param isHard true for hard mode
+	 * @param enemies the number of enemies
+	 * @return the world
+	 * @throws IllegalStateException if the game is already over
+	 */
+	static World create(String boardSize, boolean isHard, int enemies) {
+		int separator = boardSize.indexOf('x');
+		int width = Integer.parseInt(boardSize.substring(0, separator));
+		int height = Integer.parseInt(boardSize.substring(separator + 1));
+		World world = new World(width, height, isHard, World.defaultGenerator(width, height), SEED);
+		world.setEnemies(isHard, enemies);
+		world.setGoalX(0);
+		world.setGoalY(0);
+		if (world.getSimulation().outcome() != Simulation.RUNNING) {
+			throw new IllegalStateException("The game is over before the benchmark starts");
+		}
+		return world;
+	}
+}
@@ -0,0 +1,82 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import model.Simulation;
+import model.World;
+
+/**
+ * Measures moving all enemies one step in easy and in hard mode. The
+ * largest board checks that the enemy AI does not get slower with the board
+ * size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EnemyBenchmark {
+
+	/** The board size as {@code <width>x<height>}. */
+	@Param({"28x30", "112x120", "1001x1001"})
+	public String boardSize;
+
+	/** The number of enemies. */
+	@Param({"4", "64", "500"})
+	public int enemies;
+
+	/** The world of the current trial. */
+	private World world;
+	/** The simulation of {@link #world}. */
+	private Simulation simulation;
+	/** The number of the invocation. */
+	private int tick;
+
+	/**
+	 * Creates the world.
+	 */
+	@Setup
+	public void setUp() {
+		world = Boards.create(boardSize, false, enemies);
+		simulation = world.getSimulation();
+	}
+
+	/**
+	 * Moves every enemy a random step.
+	 * @param blackhole consumes the position of the first enemy
+	 */
+	@Benchmark
+	public void moveEnemiesEasy(Blackhole blackhole) {
+		world.moveEnemies(false);
+		blackhole.consume(world.getEnemyPool().getX(0));
+	}
+
+	/**
+	 * Moves every enemy by its hard-mode strategy. Moving the player every
+	 * few ticks makes the enemies re-plan their chase.
+	 * @param blackhole consumes the position of the first enemy
+	 */
+	@Benchmark
+	public void moveEnemiesHard(Blackhole blackhole) {
+		if ((tick & 7) == 0) {
+			blackhole.consume(simulation.step(Boards.MOVES[(tick >> 3) & 3]));
+		}
+		tick++;
+		world.moveEnemies(true);
+		blackhole.consume(world.getEnemyPool().getX(0));
+	}
+}
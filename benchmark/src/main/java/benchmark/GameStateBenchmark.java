@@ -0,0 +1,60 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import model.Simulation;
+
+/**
+ * Measures the check whether the game is won or lost.
+ * <p>
+ * Nothing moves, so the game stays running and the check never restarts it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GameStateBenchmark {
+
+	/** The board size as {@code <width>x<height>}. */
+	@Param({"28x30", "56x60", "112x120"})
+	public String boardSize;
+
+	/** The number of enemies. */
+	@Param({"4", "16", "64"})
+	public int enemies;
+
+	/** The simulation of the current trial. */
+	private Simulation simulation;
+
+	/**
+	 * Creates the world.
+	 */
+	@Setup
+	public void setUp() {
+		simulation = Boards.create(boardSize, false, enemies).getSimulation();
+	}
+
+	/**
+	 * Checks the game state.
+	 * @param blackhole consumes the outcome
+	 */
+	@Benchmark
+	public void checkGamestate(Blackhole blackhole) {
+		blackhole.consume(simulation.outcome());
+	}
+}
@@ -0,0 +1,63 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import model.Simulation;
+import model.World;
+
+/**
+ * Measures a single player move, including eating the dots.
+ * <p>
+ * The world has no enemies and its goal is a wall, so the game never ends
+ * and every invocation measures the move, never the end of the game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PlayerBenchmark {
+
+	/** The board size as {@code <width>x<height>}. */
+	@Param({"28x30", "56x60", "112x120"})
+	public String boardSize;
+
+	/** The world of the current trial. */
+	private World world;
+	/** The simulation of {@link #world}. */
+	private Simulation simulation;
+	/** The number of the invocation, picks the direction. */
+	private int tick;
+
+	/**
+	 * Creates the world.
+	 */
+	@Setup
+	public void setUp() {
+		world = Boards.create(boardSize, false, 0);
+		simulation = world.getSimulation();
+	}
+
+	/**
+	 * Moves the player, turning every four moves.
+	 * @param blackhole consumes the outcome
+	 */
+	@Benchmark
+	public void movePlayer(Blackhole blackhole) {
+		blackhole.consume(simulation.step(Boards.MOVES[(tick++ >> 2) & 3]));
+	}
+}
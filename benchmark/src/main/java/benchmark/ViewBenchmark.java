@@ -0,0 +1,159 @@
+package benchmark;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import model.Simulation;
+import model.World;
+import view.ConsoleView;
+import view.GraphicView;
+
+/**
+ * Measures both views: a console frame, plain and with ANSI updates, and
+ * painting the graphical view completely, a single field, and two fields in
+ * opposite corners.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ViewBenchmark {
+	/** The number of enemies on the board. */
+	private static final int ENEMIES = 16;
+	/** Size of a field in the graphical view (in pixels). */
+	private static final int FIELD_SIZE = 25;
+
+	/** The board size as {@code <width>x<height>}. */
+	@Param({"28x30", "56x60", "112x120"})
+	public String boardSize;
+
+	/** The world of the current trial. */
+	private World world;
+	/** The simulation of {@link #world}. */
+	private Simulation simulation;
+	/** Writes plain frames into the void. */
+	private ConsoleView console;
+	/** Writes ANSI updates into the void. */
+	private ConsoleView ansiConsole;
+	/** The graphical view of {@link #world}. */
+	private GraphicView graphic;
+	/** The image the graphical view paints into. */
+	private BufferedImage image;
+	/** The number of the invocation. */
+	private int tick;
+
+	/**
+	 * Creates the world and the views.
+	 */
+	@Setup
+	public void setUp() {
+		world = Boards.create(boardSize, false, ENEMIES);
+		simulation = world.getSimulation();
+		PrintStream nowhere = new PrintStream(OutputStream.nullOutputStream());
+		console = new ConsoleView(nowhere, false);
+		ansiConsole = new ConsoleView(nowhere, true);
+		int width = world.getWidth() * FIELD_SIZE;
+		int height = world.getHeight() * FIELD_SIZE;
+		graphic = new GraphicView(width, height, new Dimension(FIELD_SIZE, FIELD_SIZE));
+		graphic.setSize(width, height);
+		graphic.update(world);
+		image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+	}
+
+	/**
+	 * Renders a plain console frame. Moving the player every few frames gives
+	 * the view something to write.
+	 * @param blackhole consumes the outcome of the moves
+	 */
+	@Benchmark
+	public void consoleUpdate(Blackhole blackhole) {
+		movePlayerSometimes(blackhole);
+		console.update(world);
+	}
+
+	/**
+	 * Renders an ANSI console update, see {@link #consoleUpdate(Blackhole)}.
+	 * @param blackhole consumes the outcome of the moves
+	 */
+	@Benchmark
+	public void consoleUpdateAnsi(Blackhole blackhole) {
+		movePlayerSometimes(blackhole);
+		ansiConsole.update(world);
+	}
+
+	/**
+	 * Paints the whole graphical view.
+	 * @param blackhole consumes the image
+	 */
+	@Benchmark
+	public void paint(Blackhole blackhole) {
+		paintClipped(0, 0, image.getWidth(), image.getHeight());
+		blackhole.consume(image);
+	}
+
+	/**
+	 * Paints only the player's field, like after a single move.
+	 * @param blackhole consumes the image
+	 */
+	@Benchmark
+	public void paintField(Blackhole blackhole) {
+		paintClipped(world.getPlayerX() * FIELD_SIZE, world.getPlayerY() * FIELD_SIZE, FIELD_SIZE, FIELD_SIZE);
+		blackhole.consume(image);
+	}
+
+	/**
+	 * Paints two fields in opposite corners one by one, like the view does;
+	 * merged by Swing they would cost as much as {@link #paint(Blackhole)}.
+	 * @param blackhole consumes the image
+	 */
+	@Benchmark
+	public void paintFar(Blackhole blackhole) {
+		paintClipped(FIELD_SIZE, FIELD_SIZE, FIELD_SIZE, FIELD_SIZE);
+		paintClipped(image.getWidth() - 2 * FIELD_SIZE, image.getHeight() - 2 * FIELD_SIZE, FIELD_SIZE, FIELD_SIZE);
+		blackhole.consume(image);
+	}
+
+	/**
+	 * Paints the graphical view into {@link #image}, clipped to a rectangle.
+	 * @param x the left edge in pixels
+	 * @param y the top edge in pixels
+	 * @param width the width in pixels
+	 * @param height the height in pixels
+	 */
+	private void paintClipped(int x, int y, int width, int height) {
+		Graphics2D g = image.createGraphics();
+		g.clipRect(x, y, width, height);
+		graphic.paint(g);
+		g.dispose();
+	}
+
+	/**
+	 * Moves the player every eighth invocation, turning every four moves.
+	 * @param blackhole consumes the outcome of the move
+	 */
+	private void movePlayerSometimes(Blackhole blackhole) {
+		if ((tick & 7) == 0) {
+			blackhole.consume(simulation.step(Boards.MOVES[(tick >> 3) & 3]));
+		}
+		tick++;
+	}
+}
@@ -0,0 +1,169 @@
+package controller;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The aggregated results of many games played by the {@link BatchRunner}.
+ * <p>
+ * Every task of the runner fills a result of its own, and the results are
+ * merged when the tasks are joined, so a result is never written by two
+ * threads.
+ */
+public class BatchResult {
+
+	/** Number of games won. */
+	private int wins;
+	/** Number of games lost. */
+	private int losses;
+	/** Number of games stopped after the maximum number of steps. */
+	private int timeouts;
+	/** Sum of the steps needed for all won games. */
+	private long winSteps;
+	/** Fewest steps needed to win a game. */
+	private int minWinSteps = Integer.MAX_VALUE;
+	/** Most steps needed to win a game. */
+	private int maxWinSteps;
+	/** Number of captures per enemy type (e.g. "red"). */
+	private final Map<String, Integer> captures = new TreeMap<>();
+
+	/**
+	 * Records a won game.
+	 *
+	 * @param steps the number of steps needed to reach the goal
+	 */
+	void recordWin(int steps) {
+		wins++;
+		winSteps += steps;
+		minWinSteps = Math.min(minWinSteps, steps);
+		maxWinSteps = Math.max(maxWinSteps, steps);
+	}
+
+	/**
+	 * Records a lost game.
+	 *
+	 * @param enemyType the type of the enemy that caught the player
+	 */
+	void recordLoss(String enemyType) {
+		losses++;
+		captures.merge(enemyType, 1, Integer::sum);
+	}
+
+	/**
+	 * Records a game that was stopped after the maximum number of steps.
+	 */
+	void recordTimeout() {
+		timeouts++;
+	}
+
+	/**
+	 * Adds the games of another result to this one.
+	 *
+	 * @param other the result to add
+	 * @return this result
+	 */
+	BatchResult merge(BatchResult other) {
+		wins += other.wins;
+		losses += other.losses;
+		timeouts += other.timeouts;
+		winSteps += other.winSteps;
+		minWinSteps = Math.min(minWinSteps, other.minWinSteps);
+		maxWinSteps = Math.max(maxWinSteps, other.maxWinSteps);
+		other.captures.forEach((type, count) -> captures.merge(type, count, Integer::sum));
+		return this;
+	}
+
+	/**
+	 * Returns the number of games played.
+	 *
+	 * @return the number of games
+	 */
+	public int getGames() {
+		return wins + losses + timeouts;
+	}
+
+	/**
+	 * Returns the number of games won.
+	 *
+	 * @return the number of wins
+	 */
+	public int getWins() {
+		return wins;
+	}
+
+	/**
+	 * Returns the number of games lost.
+	 *
+	 * @return the number of losses
+	 */
+	public int getLosses() {
+		return losses;
+	}
+
+	/**
+	 * Returns the number of games stopped after the maximum number of steps.
+	 *
+	 * @return the number of timeouts
+	 */
+	public int getTimeouts() {
+		return timeouts;
+	}
+
+	/**
+	 * Returns the share of games won.
+	 *
+	 * @return the win rate between 0 and 1, 0 if no game was played
+	 */
+	public double getWinRate() {
+		int games = getGames();
+		return games == 0 ? 0 : (double) wins / games;
+	}
+
+	/**
+	 * Returns the average number of steps needed to win a game.
+	 *
+	 * @return the average steps to the goal, 0 if no game was won
+	 */
+	public double getAverageStepsToGoal() {
+		return wins == 0 ? 0 : (double) winSteps / wins;
+	}
+
+	/**
+	 * Returns the fewest steps needed to win a game.
+	 *
+	 * @return the minimum steps to the goal, 0 if no game was won
+	 */
+	public int getMinStepsToGoal() {
+		return wins == 0 ? 0 : minWinSteps;
+	}
+
+	/**
+	 * Returns the most steps needed to win a game.
+	 *
+	 * @return the maximum steps to the goal, 0 if no game was won
+	 */
+	public int getMaxStepsToGoal() {
+		return maxWinSteps;
+	}
+
+	/**
+	 * Returns how often each enemy type caught the player.
+	 *
+	 * @return the number of captures per enemy type, sorted by type
+	 */
+	public Map<String, Integer> getCaptures() {
+		return new TreeMap<>(captures);
+	}
+
+	/**
+	 * Returns a one-line summary of the results.
+	 *
+	 * @return the summary
+	 */
+	@Override
+	public String toString() {
+		return String.format("games=%d won=%d lost=%d timeouts=%d winRate=%.3f stepsToGoal(avg=%.1f min=%d max=%d) captures=%s",
+				getGames(), wins, losses, timeouts, getWinRate(),
+				getAverageStepsToGoal(), getMinStepsToGoal(), getMaxStepsToGoal(), captures);
+	}
+}
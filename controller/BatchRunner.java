@@ -0,0 +1,173 @@
+package controller;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+import model.EnemyPool;
+import model.Simulation;
+import model.World;
+
+/**
+ * Plays many independent games without any windows, e.g. for bot tournaments
+ * or to tune the difficulty.
+ * <p>
+ * Every seed becomes one headless {@link World} that is advanced with
+ * {@link World#tick(model.Direction)} until the game is won, lost or reaches
+ * the maximum number of steps. The games run in parallel on a
+ * {@link ForkJoinPool}. Each game has its own world and its own
+ * {@link PlayerPolicy}, and each task collects its own {@link BatchResult}, so
+ * the games share no mutable state and the runner scales with the cores.
+ */
+public class BatchRunner {
+
+	/** Number of games a task plays itself instead of splitting further. */
+	private static final int GAMES_PER_TASK = 4;
+
+	/** The width of every board. */
+	private final int width;
+	/** The height of every board. */
+	private final int height;
+	/** True if the enemies chase the player. */
+	private final boolean hard;
+	/** The number of enemies in every game. */
+	private final int enemyCount;
+	/** The number of steps after which a game is stopped. */
+	private final int maxSteps;
+
+	/**
+	 * Creates a new batch runner.
+	 *
+	 * @param width the width of every board
+	 * @param height the height of every board
+	 * @param hard true if the enemies should chase the player
+	 * @param enemyCount the number of enemies in every game
+	 * @param maxSteps the number of steps after which a game counts as timed out
+	 */
+	public BatchRunner(int width, int height, boolean hard, int enemyCount, int maxSteps) {
+		this.width = width;
+		this.height = height;
+		this.hard = hard;
+		this.enemyCount = enemyCount;
+		this.maxSteps = maxSteps;
+	}
+
+	/**
+	 * Plays one game per seed on the common {@link ForkJoinPool}.
+	 *
+	 * @param seeds the seeds of the games
+	 * @param policies creates a new policy for every game
+	 * @return the aggregated results of all games
+	 */
+	public BatchResult run(long[] seeds, Supplier<? extends PlayerPolicy> policies) {
+		return run(seeds, policies, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Plays one game per seed on the given pool.
+	 *
+	 * @param seeds the seeds of the games
+	 * @param policies creates a new policy for every game, called from the pool's threads
+	 * @param pool the pool running the games
+	 * @return the aggregated results of all games
+	 */
+	public BatchResult run(long[] seeds, Supplier<? extends PlayerPolicy> policies, ForkJoinPool pool) {
+		return pool.invoke(new Batch(seeds, 0, seeds.length, policies));
+	}
+
+	/**
+	 * Plays a single game on the calling thread.
+	 *
+	 * @param seed the seed of the game
+	 * @param policy decides where the player goes
+	 * @return the result of this one game
+	 */
+	public BatchResult play(long seed, PlayerPolicy policy) {
+		BatchResult result = new BatchResult();
+		play(seed, policy, result);
+		return result;
+	}
+
+	/**
+	 * Plays a single game and records its outcome.
+	 *
+	 * @param seed the seed of the game
+	 * @param policy decides where the player goes
+	 * @param result receives the outcome
+	 */
+	private void play(long seed, PlayerPolicy policy, BatchResult result) {
+		World world = new World(width, height, hard, World.defaultGenerator(width, height), seed);
+		if (world.getEnemies().size() != enemyCount) {
+			world.setEnemies(hard, enemyCount);
+		}
+		for (int step = 1; step <= maxSteps; step++) {
+			int outcome = world.tick(policy.nextDirection(world));
+			if (outcome == Simulation.WON) {
+				result.recordWin(step);
+				return;
+			}
+			if (outcome == Simulation.LOST) {
+				EnemyPool enemies = world.getEnemyPool();
+				int capturer = world.getSimulation().capturingEnemy();
+				result.recordLoss(capturer < 0 ? "unknown" : enemies.getName(capturer));
+				return;
+			}
+		}
+		result.recordTimeout();
+	}
+
+	/**
+	 * Plays the games of a range of seeds, splitting the range in halves until
+	 * it is small enough.
+	 */
+	private class Batch extends RecursiveTask<BatchResult> {
+		/** Serialization is not used. */
+		private static final long serialVersionUID = 1L;
+
+		/** The seeds of all games. */
+		private final long[] seeds;
+		/** The first seed of this task. */
+		private final int from;
+		/** One after the last seed of this task. */
+		private final int to;
+		/** Creates a new policy for every game. */
+		private final Supplier<? extends PlayerPolicy> policies;
+
+		/**
+		 * Creates a task for the seeds from {@code from} (inclusive) to
+		 * {@code to} (exclusive).
+		 *
+		 * @param seeds the seeds of all games
+		 * @param from the first seed of this task
+		 * @param to one after the last seed of this task
+		 * @param policies creates a new policy for every game
+		 */
+		Batch(long[] seeds, int from, int to, Supplier<? extends PlayerPolicy> policies) {
+			this.seeds = seeds;
+			this.from = from;
+			this.to = to;
+			this.policies = policies;
+		}
+
+		/**
+		 * Plays the games of this task, or splits it and merges the results.
+		 *
+		 * @return the results of this task's games
+		 */
+		@Override
+		protected BatchResult compute() {
+			if (to - from <= GAMES_PER_TASK) {
+				BatchResult result = new BatchResult();
+				for (int i = from; i < to; i++) {
+					play(seeds[i], policies.get(), result);
+				}
+				return result;
+			}
+			int middle = (from + to) >>> 1;
+			Batch left = new Batch(seeds, from, middle, policies);
+			left.fork();
+			BatchResult right = new Batch(seeds, middle, to, policies).compute();
+			return right.merge(left.join());
+		}
+	}
+}
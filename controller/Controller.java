@@ -9,6 +9,7 @@ import java.awt.event.MouseListener;
 
 import javax.swing.JFrame;
 
+import metrics.Metrics;
 import model.Direction;
 import model.World;
 
@@ -16,6 +17,7 @@ import model.World;
  * The controller listens for key and mouse events on the main window and controls the game logic.
  * This class extends {@link JFrame} and implements {@link KeyListener}, {@link ActionListener}, and {@link MouseListener}.
  * It forwards relevant input to the {@link World} object.
+ * The 'M' key turns the measurements of {@link Metrics} and their overlay on and off.
  */
 public class Controller extends JFrame implements KeyListener, ActionListener, MouseListener {
 
@@ -28,20 +30,20 @@ public class Controller extends JFrame implements KeyListener, ActionListener, M
 	 */
 	private JFrame frame; // Not used in this class, but declared for possible future use
 	/**
-	 * Indicates whether the game is in hard mode.
+	 * The game loop that moves the player in the direction of the last key press.
 	 */
-	private boolean isHard;
+	private GameLoop gameLoop;
 
 	/**
 	 * Creates a new controller instance.
 	 *
-	 * @param world the {@link World} to be updated whenever the player should move.
-	 * @param isHard true if the game should be in hard mode, false otherwise
+	 * @param world the {@link World} to be reset when the player presses R.
+	 * @param gameLoop the {@link GameLoop} receiving the direction the player should move in.
 	 */
-	public Controller(World world, boolean isHard) {
+	public Controller(World world, GameLoop gameLoop) {
 		// Remember the world
 		this.world = world;
-		this.isHard = isHard;
+		this.gameLoop = gameLoop;
 		// Listen for key events
 		addKeyListener(this); // Register this controller as a key listener
 		// Listen for mouse events.
@@ -50,38 +52,53 @@ public class Controller extends JFrame implements KeyListener, ActionListener, M
 
 	/////////////////// Key Events ////////////////////////////////
 
+	/**
+	 * Stops the game loop when the window is closed (e.g. on restart).
+	 */
+	@Override
+	public void dispose() {
+		gameLoop.stopAndWait();
+		super.dispose();
+	}
+
 	/**
 	 * Called when a key is pressed. Controls the player according to the pressed key.
 	 * @param e the {@link KeyEvent} containing information about the pressed key.
 	 */
 	@Override
 	public void keyPressed(KeyEvent e) {
-		// Check if we need to do something. Tells the world to move the player.
+		// Check if we need to do something. Tells the game loop where the player should go.
 		switch (e.getKeyCode()) {
 		case KeyEvent.VK_W: // Move up with 'W'
 		case KeyEvent.VK_UP: // Move up with arrow key
-			world.movePlayer(Direction.UP, isHard);
+			gameLoop.setDesiredDirection(Direction.UP);
 			break;
 		case KeyEvent.VK_S: // Move down with 'S'
 		case KeyEvent.VK_DOWN: // Move down with arrow key
-			world.movePlayer(Direction.DOWN, isHard);
+			gameLoop.setDesiredDirection(Direction.DOWN);
 			break;
 		case KeyEvent.VK_A: // Move left with 'A'
 		case KeyEvent.VK_LEFT: // Move left with arrow key
-			world.movePlayer(Direction.LEFT, isHard);
+			gameLoop.setDesiredDirection(Direction.LEFT);
 			break;
 		case KeyEvent.VK_D: // Move right with 'D'
 		case KeyEvent.VK_RIGHT: // Move right with arrow key
-			world.movePlayer(Direction.RIGHT, isHard);
+			gameLoop.setDesiredDirection(Direction.RIGHT);
 			break;
 		case KeyEvent.VK_ESCAPE:
-			// Exit the game when the escape key is pressed.
+			// Exit the game when the escape key is pressed, after the loop has saved its recording.
+			gameLoop.stopAndWait();
 			System.exit(0);
 			break;
 		case KeyEvent.VK_R:
 			// Reset the game when the 'R' key is pressed.
 			world.restart(null);
 			break;
+		case KeyEvent.VK_M:
+			// Toggle measuring and the metrics overlay with the 'M' key.
+			Metrics.setEnabled(!Metrics.isEnabled());
+			repaint();
+			break;
 		}
 	}
 
@@ -0,0 +1,224 @@
+package controller;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.swing.SwingUtilities;
+
+import metrics.Metrics;
+
+import model.Direction;
+import model.ReplayReader;
+import model.ReplayWriter;
+import model.Simulation;
+import model.World;
+import view.GraphicView;
+
+/**
+ * Runs the game on its own thread with a fixed simulation rate.
+ * <p>
+ * Key presses only store the direction the player wants to go in. The loop
+ * reads it once per simulation step, so holding or hammering a key never
+ * causes more simulation work than {@link #STEPS_PER_SECOND}. Rendering runs
+ * at {@link #FRAMES_PER_SECOND} independently of the simulation: between two
+ * steps the {@link GraphicView} interpolates the sprites from their old to
+ * their new field, so the movement looks smooth although the world only knows
+ * whole fields.
+ * <p>
+ * The directions of all steps can be recorded with a {@link ReplayWriter}.
+ * Given a {@link ReplayReader}, the loop plays a recorded game in real time
+ * instead of following the keyboard.
+ */
+public class GameLoop implements Runnable {
+
+	/** Number of simulation steps per second. Every step moves by one field. */
+	public static final int STEPS_PER_SECOND = 8;
+	/** Number of frames rendered per second. */
+	public static final int FRAMES_PER_SECOND = 60;
+
+	/** The world that is advanced by the loop. */
+	private final World world;
+	/** The view that interpolates between two steps, may be null. */
+	private final GraphicView view;
+	/** The direction the player wants to go in, written by the input thread. */
+	private final AtomicReference<Direction> desiredDirection = new AtomicReference<>(Direction.NONE);
+	/** False as soon as the loop should end. */
+	private volatile boolean running;
+	/** The thread running the loop. */
+	private Thread thread;
+	/** The recorded game to play instead of following the keyboard, or null. */
+	private final ReplayReader replay;
+	/** Records the direction of every step, or null. Only used by the loop thread. */
+	private ReplayWriter recorder;
+
+	/**
+	 * Creates a new game loop.
+	 *
+	 * @param world the {@link World} to advance
+	 * @param view the {@link GraphicView} to animate, or null
+	 */
+	public GameLoop(World world, GraphicView view) {
+		this(world, view, null);
+	}
+
+	/**
+	 * Creates a new game loop that plays a recorded game.
+	 *
+	 * @param world the {@link World} created by {@link ReplayReader#createWorld()}
+	 * @param view the {@link GraphicView} to animate, or null
+	 * @param replay the recorded game, or null to follow the keyboard
+	 */
+	public GameLoop(World world, GraphicView view, ReplayReader replay) {
+		this.world = world;
+		this.view = view;
+		this.replay = replay;
+	}
+
+	/**
+	 * Records the direction of every step from now on. Must be called before
+	 * {@link #start()}. The recorder is closed when the loop ends.
+	 *
+	 * @param recorder the recorder, or null to stop recording
+	 */
+	public void setRecorder(ReplayWriter recorder) {
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Sets the direction the player should move in from the next step on.
+	 * Can be called from any thread.
+	 *
+	 * @param direction the desired direction
+	 */
+	public void setDesiredDirection(Direction direction) {
+		desiredDirection.set(direction);
+	}
+
+	/**
+	 * Starts the loop on a new daemon thread.
+	 */
+	public synchronized void start() {
+		if (thread != null) {
+			return; // Already started
+		}
+		running = true;
+		thread = new Thread(this, "game-loop");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the loop. The current step is finished before the thread ends.
+	 */
+	public void stop() {
+		running = false;
+	}
+
+	/**
+	 * Stops the loop and waits (at most a second) until its thread has ended,
+	 * e.g. so that the recording is complete before the program exits.
+	 */
+	public void stopAndWait() {
+		stop();
+		Thread loopThread;
+		synchronized (this) {
+			loopThread = thread;
+		}
+		if (loopThread != null && loopThread != Thread.currentThread()) {
+			try {
+				loopThread.join(1000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * The loop itself: advances the world in fixed steps and renders in between.
+	 */
+	@Override
+	public void run() {
+		try {
+			loop();
+		} finally {
+			closeRecorder();
+		}
+	}
+
+	/**
+	 * Advances the world in fixed steps and renders in between until the loop
+	 * is stopped, the game is over or the replay has ended.
+	 */
+	private void loop() {
+		long stepNanos = 1_000_000_000L / STEPS_PER_SECOND;
+		long frameNanos = 1_000_000_000L / FRAMES_PER_SECOND;
+		long previous = System.nanoTime();
+		long accumulator = 0;
+		while (running) {
+			long frameStart = System.nanoTime();
+			accumulator += frameStart - previous;
+			previous = frameStart;
+			// Catch up with real time in fixed steps
+			while (accumulator >= stepNanos && running) {
+				accumulator -= stepNanos;
+				if (replay != null && !replay.hasNext()) {
+					running = false; // The recorded game ends here
+					return;
+				}
+				Direction direction = replay != null ? replay.next() : desiredDirection.get();
+				record(direction);
+				long allocated = Metrics.startAllocation();
+				int outcome = world.tick(direction);
+				Metrics.stopAllocation(allocated);
+				if (outcome != Simulation.RUNNING) {
+					running = false;
+					// Closing the windows must happen on the event dispatch thread
+					SwingUtilities.invokeLater(() -> world.restart(outcome == Simulation.WON));
+					return;
+				}
+			}
+			if (view != null) {
+				view.setInterpolation((double) accumulator / stepNanos);
+			}
+			// Sleep for the rest of the frame
+			long sleep = frameNanos - (System.nanoTime() - frameStart);
+			if (sleep > 0) {
+				LockSupport.parkNanos(sleep);
+			}
+		}
+	}
+
+	/**
+	 * Records the direction of a step if a recorder is set. If writing fails,
+	 * the recording stops and the game goes on.
+	 *
+	 * @param direction the direction of the step
+	 */
+	private void record(Direction direction) {
+		if (recorder == null) {
+			return;
+		}
+		try {
+			recorder.record(direction);
+		} catch (IOException e) {
+			System.err.println("Could not record the game: " + e.getMessage());
+			closeRecorder();
+		}
+	}
+
+	/**
+	 * Closes the recorder, if any.
+	 */
+	private void closeRecorder() {
+		if (recorder == null) {
+			return;
+		}
+		try {
+			recorder.close();
+		} catch (IOException e) {
+			System.err.println("Could not save the recording: " + e.getMessage());
+		}
+		recorder = null;
+	}
+}
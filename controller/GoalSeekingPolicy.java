@@ -0,0 +1,49 @@
+package controller;
+
+import model.Direction;
+import model.DistanceField;
+import model.NeighborTable;
+import model.World;
+
+/**
+ * A player policy that walks the shortest way to the goal and ignores the
+ * enemies. The distances to the goal are computed once per game.
+ */
+public class GoalSeekingPolicy implements PlayerPolicy {
+	/** All directions, {@link Direction#values()} copies the array on every call. */
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/** Distances to the goal, created for the first world played. */
+	private DistanceField toGoal;
+
+	/**
+	 * Returns the direction to the neighbouring field that is closest to the goal.
+	 *
+	 * @param world the world being played
+	 * @return the direction to go in, {@link Direction#NONE} if the goal cannot be reached
+	 */
+	@Override
+	public Direction nextDirection(World world) {
+		NeighborTable neighbors = world.getNeighbors();
+		if (toGoal == null) {
+			toGoal = new DistanceField(neighbors);
+		}
+		toGoal.update(world.getGoalX(), world.getGoalY());
+		int cell = world.getGrid().index(world.getPlayerX(), world.getPlayerY());
+		Direction best = Direction.NONE;
+		int bestDistance = toGoal.get(cell);
+		for (Direction direction : DIRECTIONS) {
+			int dir = NeighborTable.indexOf(direction);
+			if (dir < 0 || !neighbors.isOpen(cell, dir)) {
+				continue;
+			}
+			// The table wraps around at the edges like the player
+			int distance = toGoal.get(neighbors.neighbor(cell, dir));
+			if (distance < bestDistance) {
+				bestDistance = distance;
+				best = direction;
+			}
+		}
+		return best;
+	}
+}
@@ -1,17 +1,34 @@
 package controller;
 
 import java.awt.Dimension;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import javax.swing.JFrame;
 
+import metrics.Metrics;
 import view.ConsoleView;
 import view.GraphicView;
 import view.StartMenu;
+import model.LevelReader;
+import model.LevelWriter;
+import model.ReplayReader;
+import model.ReplayWriter;
+import model.Simulation;
 import model.World;
 
 /**
  * Main class of the game. Responsible for initializing and connecting the MVC components.
  * Creates the {@link World}, the views, and the {@link Controller}, and starts the game.
+ * <p>
+ * Command line options:
+ * {@code --record <file>} records every game into the file (the last game is kept),
+ * {@code --replay <file>} plays a recorded game in real time,
+ * {@code --replay-headless <file>} replays a recorded game without windows as fast as possible,
+ * {@code --level <file>} plays a level file instead of the classic maze,
+ * {@code --export-level <file>} writes the classic maze as a level file,
+ * {@code --metrics <seconds>} measures the game and prints a summary at the given interval.
  */
 public class Labyrinth {
 
@@ -24,13 +41,56 @@ public class Labyrinth {
 
     /** The start menu of the game. */
     private static StartMenu startMenu;
+    /** The file every game is recorded to, or null. */
+    private static Path recordPath;
+    /** The level played instead of the classic maze, or null. */
+    private static LevelReader level;
 
     /**
      * Entry point of the program. Initializes the world, the views, and the controller.
      *
-     * @param args command line arguments (not used)
+     * @param args command line arguments, see the class description
      */
     public static void main(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--metrics")) {
+                try {
+                    Metrics.startDump((long) (Double.parseDouble(args[i + 1]) * 1000), System.err);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Not a positive number of seconds: " + args[i + 1]);
+                }
+                continue;
+            }
+            Path path = Paths.get(args[i + 1]);
+            switch (args[i]) {
+            case "--record":
+                recordPath = path;
+                break;
+            case "--replay":
+                javax.swing.SwingUtilities.invokeLater(() -> startReplay(path));
+                return;
+            case "--replay-headless":
+                replayHeadless(path);
+                return;
+            case "--level":
+                try {
+                    level = new LevelReader(path);
+                } catch (IOException e) {
+                    System.err.println("Could not read the level: " + e.getMessage());
+                    return;
+                }
+                break;
+            case "--export-level":
+                try {
+                    LevelWriter.exportClassic(path);
+                } catch (IOException e) {
+                    System.err.println("Could not write the level: " + e.getMessage());
+                }
+                return;
+            default:
+                System.err.println("Unknown option: " + args[i]);
+            }
+        }
         javax.swing.SwingUtilities.invokeLater(() -> {
             int width = BOARD_WIDTH * FIELD_SIZE; // Calculate window width in pixels
             int height = BOARD_HEIGHT * FIELD_SIZE; // Calculate window height in pixels
@@ -44,11 +104,68 @@ public class Labyrinth {
      * @param isHard true if the game should be in hard mode, false otherwise
      */
     public static void startGame(boolean isHard){
-        // Dimension of the game board (in fields)
-        int width = BOARD_WIDTH;
-        int height = BOARD_HEIGHT;
         // Create a new game world (model)
-        World world = new World(width, height, isHard);
+        World world = level != null
+                ? level.createWorld(isHard, System.nanoTime())
+                : new World(BOARD_WIDTH, BOARD_HEIGHT, isHard);
+        GameLoop gameLoop = showGame(world, null);
+        if (recordPath != null && level != null) {
+            // A replay only stores the seed, which cannot rebuild a level
+            System.err.println("Games on a level file cannot be recorded");
+        } else if (recordPath != null) {
+            try {
+                gameLoop.setRecorder(new ReplayWriter(recordPath, world));
+            } catch (IOException e) {
+                System.err.println("Could not record the game: " + e.getMessage());
+            }
+        }
+        gameLoop.start();
+    }
+
+    /**
+     * Plays a recorded game in real time in the game window.
+     *
+     * @param path the replay file
+     */
+    public static void startReplay(Path path) {
+        try {
+            ReplayReader replay = new ReplayReader(path);
+            showGame(replay.createWorld(), replay).start();
+        } catch (IOException e) {
+            System.err.println("Could not read the replay: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replays a recorded game without any windows as fast as possible and
+     * prints the outcome, e.g. for regression checks.
+     *
+     * @param path the replay file
+     */
+    public static void replayHeadless(Path path) {
+        try {
+            ReplayReader replay = new ReplayReader(path);
+            long start = System.nanoTime();
+            int outcome = replay.play(replay.createWorld());
+            double millis = (System.nanoTime() - start) / 1e6;
+            String result = outcome == Simulation.WON ? "won" : outcome == Simulation.LOST ? "lost" : "running";
+            System.out.printf("Replayed %d ticks in %.3f ms: %s%n", replay.getTicks(), millis, result);
+        } catch (IOException e) {
+            System.err.println("Could not read the replay: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the views and the game window for a world.
+     *
+     * @param world the world to show
+     * @param replay the recorded game to play, or null to follow the keyboard
+     * @return the game loop, not started yet
+     */
+    private static GameLoop showGame(World world, ReplayReader replay) {
+        // Dimension of the game board (in fields)
+        int width = world.getWidth();
+        int height = world.getHeight();
         // Size of a field in the graphical view (in pixels)
         Dimension fieldDimensions = new Dimension(FIELD_SIZE, FIELD_SIZE);
         // Create and register graphical view (GUI)
@@ -64,8 +181,10 @@ public class Labyrinth {
         // Create and register console view (prints to terminal)
         ConsoleView cview = new ConsoleView();
         world.registerView(cview); // Register the console view as an observer
+        // Create the game loop, it advances the world at a fixed rate
+        GameLoop gameLoop = new GameLoop(world, gview, replay);
         // Create controller and initialize JFrame (window)
-        Controller controller = new Controller(world, isHard); // Handles user input
+        Controller controller = new Controller(world, gameLoop); // Handles user input
         controller.setTitle("Päc-Man");
         controller.setResizable(false);
         controller.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -74,6 +193,7 @@ public class Labyrinth {
         controller.setLocationRelativeTo(null); // Center window
         controller.setVisible(true);
         controller.requestFocusInWindow(); // Ensure key events are received
+        return gameLoop;
     }
 
     /**
@@ -0,0 +1,22 @@
+package controller;
+
+import model.Direction;
+import model.World;
+
+/**
+ * Decides where the player goes when a game is played without a keyboard,
+ * e.g. by the {@link BatchRunner}.
+ * <p>
+ * The {@link BatchRunner} creates one policy per game, so a policy may keep
+ * state about its game but must not share mutable state with other policies.
+ */
+public interface PlayerPolicy {
+
+	/**
+	 * Returns the direction the player wants to go in during the next tick.
+	 *
+	 * @param world the world being played
+	 * @return the desired direction, {@link Direction#NONE} to stand still
+	 */
+	Direction nextDirection(World world);
+}
@@ -0,0 +1,199 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts how often values of each size were recorded, in the style of an
+ * HdrHistogram.
+ * <p>
+ * Values below {@link #LINEAR_BUCKETS} are counted exactly. Above that, every
+ * power of two is split into {@link #SUB_BUCKETS} buckets of equal width, so
+ * every value is known to about 3 percent. Recording only increments atomic
+ * counters and never allocates, so several threads may record into the same
+ * histogram (e.g. the game loop and the event dispatch thread both notify the
+ * views). Readers see the counts of a moment ago. Any thread may
+ * {@link #reset()} it, the next recording thread then clears the counts.
+ */
+public class Histogram {
+	/** The number of bits of a value that pick its bucket inside a power of two. */
+	private static final int SUB_BITS = 5;
+	/** The number of buckets per power of two. */
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	/** Values below this are counted in a bucket of their own. */
+	private static final int LINEAR_BUCKETS = 2 * SUB_BUCKETS;
+	/** The number of buckets, enough for every positive {@code long}. */
+	private static final int BUCKETS = LINEAR_BUCKETS + (63 - SUB_BITS) * SUB_BUCKETS;
+
+	/** The name shown in summaries. */
+	private final String name;
+	/** The unit of the values, see {@link Metrics#format(long, String)}. */
+	private final String unit;
+	/** The number of values in every bucket. */
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	/** The number of recorded values. */
+	private final AtomicLong count = new AtomicLong();
+	/** The sum of all recorded values. */
+	private final AtomicLong sum = new AtomicLong();
+	/** The largest recorded value. */
+	private final AtomicLong max = new AtomicLong();
+	/** The number of calls to {@link #reset()}. */
+	private final AtomicInteger resetRequests = new AtomicInteger();
+	/** The number of resets applied by the recording threads. */
+	private final AtomicInteger resets = new AtomicInteger();
+
+	/**
+	 * Creates an empty histogram.
+	 * @param name the name shown in summaries
+	 * @param unit the unit of the values, "ns" or "B"
+	 */
+	public Histogram(String name, String unit) {
+		this.name = name;
+		this.unit = unit;
+	}
+
+	/**
+	 * Records a value. Negative values are recorded as 0.
+	 * @param value the value
+	 */
+	public void record(long value) {
+		int requests = resetRequests.get();
+		int applied = resets.get();
+		// Only the thread that wins the update clears the counts
+		if (requests != applied && resets.compareAndSet(applied, requests)) {
+			clear();
+		}
+		value = Math.max(0, value);
+		counts.incrementAndGet(bucketOf(value));
+		count.incrementAndGet();
+		sum.addAndGet(value);
+		long largest = max.get();
+		while (value > largest && !max.compareAndSet(largest, value)) {
+			largest = max.get();
+		}
+	}
+
+	/**
+	 * Removes all recorded values. May be called from any thread: the values
+	 * are removed by the next thread recording into the histogram, and the
+	 * histogram reads as empty until then.
+	 */
+	public void reset() {
+		resetRequests.incrementAndGet();
+	}
+
+	/**
+	 * Removes all recorded values. Only called by the recording thread that
+	 * applies a reset.
+	 */
+	private void clear() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+
+	/**
+	 * Checks if a reset was asked for that no recording thread has applied
+	 * yet.
+	 * @return true if the histogram should read as empty
+	 */
+	private boolean isResetPending() {
+		return resetRequests.get() != resets.get();
+	}
+
+	/**
+	 * Returns the name shown in summaries.
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the unit of the values.
+	 * @return "ns" or "B"
+	 */
+	public String getUnit() {
+		return unit;
+	}
+
+	/**
+	 * Returns the number of recorded values.
+	 * @return the count
+	 */
+	public long getCount() {
+		return isResetPending() ? 0 : count.get();
+	}
+
+	/**
+	 * Returns the average of all recorded values.
+	 * @return the mean, 0 if nothing was recorded
+	 */
+	public double getMean() {
+		long values = count.get();
+		return values == 0 || isResetPending() ? 0 : (double) sum.get() / values;
+	}
+
+	/**
+	 * Returns the largest recorded value.
+	 * @return the maximum, 0 if nothing was recorded
+	 */
+	public long getMax() {
+		return isResetPending() ? 0 : max.get();
+	}
+
+	/**
+	 * Returns the value below which the given share of all values lies.
+	 * @param percentile the share in percent, e.g. 99
+	 * @return the largest value of the bucket holding the percentile, at most
+	 * the maximum; 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (isResetPending()) {
+			return 0;
+		}
+		long largest = max.get();
+		long wanted = (long) Math.ceil(count.get() * Math.min(100, percentile) / 100);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= wanted && seen > 0) {
+				return Math.min(largest, highestValueOf(i));
+			}
+		}
+		return largest;
+	}
+
+	/**
+	 * Returns the bucket a value is counted in.
+	 * @param value the value, not negative
+	 * @return the index into {@link #counts}
+	 */
+	private static int bucketOf(long value) {
+		if (value < LINEAR_BUCKETS) {
+			return (int) value;
+		}
+		// Keep the SUB_BITS + 1 highest bits, the top one is always set
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		int sub = (int) (value >>> shift) - SUB_BUCKETS;
+		return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + sub;
+	}
+
+	/**
+	 * Returns the largest value counted in a bucket.
+	 * @param bucket the index into {@link #counts}
+	 * @return the largest value of the bucket
+	 */
+	private static long highestValueOf(int bucket) {
+		if (bucket < LINEAR_BUCKETS) {
+			return bucket;
+		}
+		int shift = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+		long sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((sub + 1) << shift) - 1;
+	}
+}
@@ -0,0 +1,181 @@
+package metrics;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+
+/**
+ * The registry of all measurements of the game: how long the player move, the
+ * enemy AI, the game state check, the view updates and painting take, and how
+ * many bytes a tick allocates.
+ * <p>
+ * Measuring is off by default. A measured piece of code asks for
+ * {@link #start()} and passes the result to {@link #stop(Histogram, long)};
+ * while measuring is off this costs a single read of a flag, no clock is read
+ * and nothing is recorded. Histograms may be recorded into from several
+ * threads (the game loop, the event dispatch thread, or the workers of a
+ * batch run), summaries may be taken from any thread.
+ */
+public final class Metrics {
+	/** Time to move the player, including eating a dot. */
+	public static final Histogram PLAYER_MOVE = new Histogram("player move", "ns");
+	/** Time to move all enemies. */
+	public static final Histogram ENEMY_AI = new Histogram("enemy AI", "ns");
+	/** Time to check whether the game is won or lost. */
+	public static final Histogram GAME_STATE = new Histogram("game state", "ns");
+	/** Time to notify all views of a change. */
+	public static final Histogram VIEW_DISPATCH = new Histogram("view dispatch", "ns");
+	/** Time to paint the graphical view. */
+	public static final Histogram PAINT = new Histogram("paint", "ns");
+	/** Bytes allocated by the game loop thread during one tick. */
+	public static final Histogram TICK_ALLOCATION = new Histogram("alloc/tick", "B");
+
+	/** All histograms, in the order of the summary. */
+	private static final Histogram[] HISTOGRAMS = {PLAYER_MOVE, ENEMY_AI, GAME_STATE, VIEW_DISPATCH, PAINT, TICK_ALLOCATION};
+
+	/** Reads the bytes allocated by the current thread, null if the JVM cannot. */
+	private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+	/** True while measurements are recorded. */
+	private static volatile boolean enabled;
+
+	/**
+	 * Not used, all methods are static.
+	 */
+	private Metrics() {
+	}
+
+	/**
+	 * Returns whether measurements are recorded.
+	 * @return true if measuring is on
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Turns measuring on or off. Turning it on starts with empty histograms;
+	 * they are emptied by the next thread recording into them, so this may be
+	 * called from any thread.
+	 * @param on true to record measurements
+	 */
+	public static void setEnabled(boolean on) {
+		if (on && !enabled) {
+			for (Histogram histogram : HISTOGRAMS) {
+				histogram.reset();
+			}
+		}
+		enabled = on;
+	}
+
+	/**
+	 * Starts measuring a piece of code.
+	 * @return the current time in nanoseconds, or 0 while measuring is off
+	 */
+	public static long start() {
+		return enabled ? System.nanoTime() : 0L;
+	}
+
+	/**
+	 * Records the time since {@link #start()}, unless measuring was off then.
+	 * @param histogram the histogram to record into
+	 * @param start the value returned by {@link #start()}
+	 */
+	public static void stop(Histogram histogram, long start) {
+		if (start != 0L) {
+			histogram.record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Starts counting the bytes allocated by the current thread.
+	 * @return the bytes allocated so far, or -1 while measuring is off
+	 */
+	public static long startAllocation() {
+		return enabled && THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1L;
+	}
+
+	/**
+	 * Records the bytes allocated since {@link #startAllocation()} as the
+	 * allocation of one tick, unless measuring was off then.
+	 * @param start the value returned by {@link #startAllocation()}
+	 */
+	public static void stopAllocation(long start) {
+		if (start >= 0) {
+			TICK_ALLOCATION.record(THREADS.getCurrentThreadAllocatedBytes() - start);
+		}
+	}
+
+	/**
+	 * Returns one summary line per histogram: count, median, 99th
+	 * percentile and maximum.
+	 * @return the lines
+	 */
+	public static String[] summary() {
+		String[] lines = new String[HISTOGRAMS.length];
+		for (int i = 0; i < HISTOGRAMS.length; i++) {
+			Histogram h = HISTOGRAMS[i];
+			String unit = h.getUnit();
+			lines[i] = String.format("%-13s n=%-7d p50=%-9s p99=%-9s max=%s", h.getName(), h.getCount(),
+					format(h.getValueAtPercentile(50), unit), format(h.getValueAtPercentile(99), unit),
+					format(h.getMax(), unit));
+		}
+		return lines;
+	}
+
+	/**
+	 * Formats a value for the summary, times in microseconds.
+	 * @param value the value
+	 * @param unit the unit of the value, "ns" or "B"
+	 * @return the formatted value with its unit
+	 */
+	static String format(long value, String unit) {
+		if (unit.equals("ns")) {
+			return String.format("%.1fus", value / 1000.0);
+		}
+		return value + unit;
+	}
+
+	/**
+	 * Turns measuring on and prints the summary at a fixed rate on a daemon
+	 * thread, e.g. to find out what makes a session stutter.
+	 * @param periodMillis the time between two summaries in milliseconds
+	 * @param out where to print the summaries
+	 * @throws IllegalArgumentException if the period is not positive
+	 */
+	public static void startDump(long periodMillis, PrintStream out) {
+		if (periodMillis <= 0) {
+			throw new IllegalArgumentException("The period must be positive: " + periodMillis);
+		}
+		setEnabled(true);
+		Thread dumper = new Thread(() -> {
+			try {
+				while (true) {
+					Thread.sleep(periodMillis);
+					StringBuilder text = new StringBuilder("--- metrics ---").append(System.lineSeparator());
+					for (String line : summary()) {
+						text.append(line).append(System.lineSeparator());
+					}
+					out.print(text);
+				}
+			} catch (InterruptedException e) {
+				// Stop dumping
+			}
+		}, "metrics-dump");
+		dumper.setDaemon(true);
+		dumper.start();
+	}
+
+	/**
+	 * Returns the bean that counts the bytes allocated per thread.
+	 * @return the bean, or null if the JVM does not count allocations
+	 */
+	private static com.sun.management.ThreadMXBean allocationBean() {
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+			if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+				return bean;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,36 @@
+package model;
+
+/**
+ * The pink enemy: aims a few fields ahead of the player in the direction the
+ * player is facing, to cut it off. Retreats to the top left corner when
+ * scattering.
+ */
+public class AmbushStrategy implements GhostStrategy {
+	/** How many fields ahead of the player the enemy aims. */
+	private static final int LOOK_AHEAD = 4;
+
+	/**
+	 * Targets the field four steps ahead of the player.
+	 * @param planner the planner moving the enemy
+	 * @param slot the enemy's slot
+	 * @return the field ahead of the player, clamped to the board
+	 */
+	@Override
+	public int chaseTarget(GhostPlanner planner, int slot) {
+		Direction direction = planner.getPlayerDirection();
+		return planner.cell(planner.getPlayerX() + direction.deltaX * LOOK_AHEAD,
+				planner.getPlayerY() + direction.deltaY * LOOK_AHEAD);
+	}
+
+	/**
+	 * Targets the top left corner.
+	 * @param planner the planner moving the enemy
+	 * @param slot the enemy's slot
+	 * @return the top left field
+	 */
+	@Override
+	public int scatterTarget(GhostPlanner planner, int slot) {
+		return planner.cell(0, 0);
+	}
+
+}
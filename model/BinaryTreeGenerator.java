@@ -0,0 +1,124 @@
+package model;
+
+/**
+ * Generates a perfect maze with the binary tree algorithm, one field at a
+ * time.
+ * <p>
+ * Passages lie on the odd coordinates like in the
+ * {@link RecursiveBacktrackerGenerator}. Every passage opens the wall to the
+ * passage above it or the one to its left, decided by a hash of the seed and
+ * its position; passages in the top row always open to the left, passages in
+ * the left column always upwards. Because every field only depends on its own
+ * position, any part of the board can be generated on its own and always
+ * looks the same, which makes this generator a {@link TileSource} for boards
+ * too large to keep in memory. The mazes have long corridors along the top
+ * and the left edge, a known trait of the algorithm.
+ */
+public class BinaryTreeGenerator implements MazeGenerator, TileSource {
+	/** The width of the board. */
+	private final int width;
+	/** The height of the board. */
+	private final int height;
+	/** The seed of the maze. */
+	private final long seed;
+
+	/**
+	 * Creates a generator for tiles of a board of the given size.
+	 * @param width the width of the board
+	 * @param height the height of the board
+	 * @param seed the seed of the maze
+	 */
+	public BinaryTreeGenerator(int width, int height, long seed) {
+		this.width = width;
+		this.height = height;
+		this.seed = seed;
+	}
+
+	/**
+	 * Fills the grid with a maze. The size and seed given to the constructor
+	 * are not used.
+	 * @param grid the grid to fill
+	 * @param seed the seed for all random decisions
+	 */
+	@Override
+	public void generate(Grid grid, long seed) {
+		int w = grid.getWidth();
+		int h = grid.getHeight();
+		byte[] row = new byte[w];
+		for (int y = 0; y < h; y++) {
+			for (int x = 0; x < w; x++) {
+				row[x] = fieldAt(x, y, w, h, seed);
+			}
+			grid.setRow(y, row);
+		}
+	}
+
+	/**
+	 * Fills one tile of the board.
+	 * @param x0 the x position of the tile's top left field
+	 * @param y0 the y position of the tile's top left field
+	 * @param size the width and height of the tile
+	 * @param cells receives the field type ordinals in row-major order
+	 */
+	@Override
+	public void loadTile(int x0, int y0, int size, byte[] cells) {
+		for (int dy = 0; dy < size; dy++) {
+			for (int dx = 0; dx < size; dx++) {
+				cells[dy * size + dx] = fieldAt(x0 + dx, y0 + dy, width, height, seed);
+			}
+		}
+	}
+
+	/**
+	 * Computes a single field of the maze.
+	 * @param x the x position
+	 * @param y the y position
+	 * @param width the width of the board
+	 * @param height the height of the board
+	 * @param seed the seed of the maze
+	 * @return {@link Grid#DOT} for passages, {@link Grid#WALL} otherwise
+	 */
+	private static byte fieldAt(int x, int y, int width, int height, long seed) {
+		// Passages lie on the odd positions up to width - 2 and height - 2, so the edges stay walls
+		int lastX = (width - 3) | 1;
+		int lastY = (height - 3) | 1;
+		if (x < 1 || y < 1 || x > lastX || y > lastY) {
+			return Grid.WALL;
+		}
+		boolean oddX = (x & 1) != 0;
+		boolean oddY = (y & 1) != 0;
+		if (oddX && oddY) {
+			return Grid.DOT; // A passage
+		}
+		if (oddX) {
+			// The wall above the passage (x, y + 1)
+			return y + 1 <= lastY && opensUp(x, y + 1, seed) ? Grid.DOT : Grid.WALL;
+		}
+		if (oddY) {
+			// The wall left of the passage (x + 1, y)
+			return x + 1 <= lastX && !opensUp(x + 1, y, seed) ? Grid.DOT : Grid.WALL;
+		}
+		return Grid.WALL; // Between four passages
+	}
+
+	/**
+	 * Decides whether a passage opens upwards or to the left.
+	 * @param x the x position of the passage
+	 * @param y the y position of the passage
+	 * @param seed the seed of the maze
+	 * @return true for upwards, false for the left
+	 */
+	private static boolean opensUp(int x, int y, long seed) {
+		if (y == 1) {
+			return false; // Top row, only the left is open
+		}
+		if (x == 1) {
+			return true; // Left column, only up is open
+		}
+		// SplitMix64 finalizer over the seed and the position
+		long z = seed + ((long) y << 32 | (x & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return ((z ^ (z >>> 31)) & 1) != 0;
+	}
+}
@@ -0,0 +1,50 @@
+package model;
+
+/**
+ * Read and write access to the fields of a board, independent of how they
+ * are stored.
+ * <p>
+ * A {@link Grid} keeps the whole board in memory, a {@link ChunkedGrid} only
+ * the tiles that are in use. Code that only looks at single fields should use
+ * this interface, so it works with both. A {@link World} always uses a
+ * {@link Grid}.
+ */
+public interface Board {
+
+	/**
+	 * Returns the width of the board.
+	 * @return the width
+	 */
+	int getWidth();
+
+	/**
+	 * Returns the height of the board.
+	 * @return the height
+	 */
+	int getHeight();
+
+	/**
+	 * Returns the field type at (x, y).
+	 * @param x the x position
+	 * @param y the y position
+	 * @return the field type
+	 */
+	FieldType get(int x, int y);
+
+	/**
+	 * Checks if the field at (x, y) is a wall.
+	 * @param x the x position
+	 * @param y the y position
+	 * @return true if it is a wall
+	 */
+	boolean isWall(int x, int y);
+
+	/**
+	 * Sets the field type at (x, y).
+	 * @param x the x position
+	 * @param y the y position
+	 * @param type the new field type
+	 */
+	void set(int x, int y, FieldType type);
+
+}
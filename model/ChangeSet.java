@@ -0,0 +1,91 @@
+package model;
+
+/**
+ * Describes what changed in a {@link World} since the views were last notified.
+ * <p>
+ * A change set consists of flags telling which parts of the world changed
+ * (player, enemies, fields) and the indices of the fields whose type changed,
+ * e.g. because a dot was eaten. The world reuses a single change set, so views
+ * must not keep a reference to it after {@code update} returns.
+ */
+public class ChangeSet {
+	/** The player moved or turned. */
+	public static final int PLAYER = 1;
+	/** At least one enemy moved, or enemies were added or removed. */
+	public static final int ENEMIES = 1 << 1;
+	/** At least one field changed its type, see {@link #getCell(int)}. */
+	public static final int FIELDS = 1 << 2;
+	/** The start or goal position changed. */
+	public static final int START_GOAL = 1 << 3;
+
+	/** The flags of all recorded changes. */
+	private int flags;
+	/** The row-major indices of the changed fields. */
+	private int[] cells = new int[8];
+	/** The number of valid entries in {@link #cells}. */
+	private int cellCount;
+
+	/**
+	 * Records a change.
+	 * @param flag one or more of the change flags
+	 */
+	public void add(int flag) {
+		flags |= flag;
+	}
+
+	/**
+	 * Records that the field with the given index changed its type.
+	 * @param index the row-major index of the field
+	 */
+	public void addCell(int index) {
+		if (cellCount == cells.length) {
+			int[] grown = new int[cells.length * 2];
+			System.arraycopy(cells, 0, grown, 0, cellCount);
+			cells = grown;
+		}
+		cells[cellCount++] = index;
+		flags |= FIELDS;
+	}
+
+	/**
+	 * Checks if any of the given changes have been recorded.
+	 * @param flag one or more of the change flags
+	 * @return true if at least one of them changed
+	 */
+	public boolean has(int flag) {
+		return (flags & flag) != 0;
+	}
+
+	/**
+	 * Checks if nothing has been recorded.
+	 * @return true if there are no changes
+	 */
+	public boolean isEmpty() {
+		return flags == 0;
+	}
+
+	/**
+	 * Returns the number of changed fields.
+	 * @return the number of recorded field indices
+	 */
+	public int getCellCount() {
+		return cellCount;
+	}
+
+	/**
+	 * Returns the index of a changed field.
+	 * @param i the number of the change, from 0 to {@link #getCellCount()} - 1
+	 * @return the row-major index of the field
+	 */
+	public int getCell(int i) {
+		return cells[i];
+	}
+
+	/**
+	 * Forgets all recorded changes.
+	 */
+	public void clear() {
+		flags = 0;
+		cellCount = 0;
+	}
+}
@@ -0,0 +1,231 @@
+package model;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A board that keeps only the tiles in use in memory, for boards far too
+ * large for a {@link Grid}.
+ * <p>
+ * The board is split into square tiles of {@link #TILE_SIZE} fields, each
+ * stored as a {@code byte[]} of field type ordinals like a small grid. A tile
+ * is asked from the {@link TileSource} on first access and kept in a cache of
+ * at most a given number of tiles; the tile that was used longest ago is
+ * dropped when the cache is full. Tiles that were changed (e.g. a dot was
+ * eaten) are never dropped, they are moved aside and taken back on the next
+ * access, so the memory depends on the area that is in use and the area that
+ * was changed, not on the size of the board.
+ * Consecutive accesses to the same tile skip the cache lookup.
+ * <p>
+ * This is only the storage layer. A {@link World} still keeps its board in a
+ * {@link Grid} and several arrays with one entry per field (neighbours,
+ * connectivity, occupancy, distances), so it cannot run on a chunked board;
+ * tools that walk boards too large for a world can use this class directly.
+ */
+public class ChunkedGrid implements Board {
+	/** The number of bits of a position that address a field inside its tile. */
+	public static final int TILE_SHIFT = 6;
+	/** The width and height of a tile. */
+	public static final int TILE_SIZE = 1 << TILE_SHIFT;
+	/** Mask of the bits of a position that address a field inside its tile. */
+	private static final int TILE_MASK = TILE_SIZE - 1;
+	/** All field types, indexed by their ordinal. */
+	private static final FieldType[] TYPES = FieldType.values();
+
+	/** The width of the board. */
+	private final int width;
+	/** The height of the board. */
+	private final int height;
+	/** Generates or loads the tiles. */
+	private final TileSource source;
+	/** The tiles in memory, the least recently used first. */
+	private final LinkedHashMap<Long, byte[]> tiles;
+	/** Changed tiles that were dropped from {@link #tiles}. */
+	private final Map<Long, byte[]> changed = new HashMap<>();
+	/** The keys of all changed tiles, in or out of the cache. */
+	private final Set<Long> dirty = new HashSet<>();
+	/** The cells of the last dropped unchanged tile, reused for the next load. */
+	private byte[] spare;
+	/** The key of the tile used last, or -1. */
+	private long lastKey = -1;
+	/** The tile used last. */
+	private byte[] lastTile;
+	/** The number of tiles asked from the source so far. */
+	private long loads;
+
+	/**
+	 * Creates a chunked board. No tile is loaded yet.
+	 * @param width the width of the board
+	 * @param height the height of the board
+	 * @param source generates or loads the tiles
+	 * @param maxTiles the number of tiles kept in memory, at least one
+	 */
+	public ChunkedGrid(int width, int height, TileSource source, int maxTiles) {
+		this.width = width;
+		this.height = height;
+		this.source = source;
+		int capacity = Math.max(1, maxTiles);
+		this.tiles = new LinkedHashMap<Long, byte[]>(16, 0.75f, true) {
+			/** Serialization is not used. */
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+				if (size() <= capacity) {
+					return false;
+				}
+				if (dirty.contains(eldest.getKey())) {
+					changed.put(eldest.getKey(), eldest.getValue()); // Keep the changes
+				} else {
+					spare = eldest.getValue();
+				}
+				if (eldest.getKey() == lastKey) {
+					lastKey = -1;
+					lastTile = null;
+				}
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Returns the width of the board.
+	 * @return the width
+	 */
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the board.
+	 * @return the height
+	 */
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the field type at (x, y), loading its tile if needed.
+	 * @param x the x position
+	 * @param y the y position
+	 * @return the field type
+	 * @throws IndexOutOfBoundsException if (x, y) is outside the board
+	 */
+	@Override
+	public FieldType get(int x, int y) {
+		return TYPES[getByte(x, y)];
+	}
+
+	/**
+	 * Returns the field type ordinal at (x, y), loading its tile if needed.
+	 * @param x the x position
+	 * @param y the y position
+	 * @return the ordinal of the field type
+	 * @throws IndexOutOfBoundsException if (x, y) is outside the board
+	 */
+	public byte getByte(int x, int y) {
+		return tile(x, y)[((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK)];
+	}
+
+	/**
+	 * Checks if the field at (x, y) is a wall, loading its tile if needed.
+	 * @param x the x position
+	 * @param y the y position
+	 * @return true if it is a wall
+	 * @throws IndexOutOfBoundsException if (x, y) is outside the board
+	 */
+	@Override
+	public boolean isWall(int x, int y) {
+		return getByte(x, y) == Grid.WALL;
+	}
+
+	/**
+	 * Sets the field type at (x, y). The tile is kept from then on.
+	 * @param x the x position
+	 * @param y the y position
+	 * @param type the new field type
+	 * @throws IndexOutOfBoundsException if (x, y) is outside the board
+	 */
+	@Override
+	public void set(int x, int y, FieldType type) {
+		byte[] tile = tile(x, y);
+		int i = ((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK);
+		if (tile[i] != type.ordinal()) {
+			tile[i] = (byte) type.ordinal();
+			dirty.add(lastKey);
+		}
+	}
+
+	/**
+	 * Loads all tiles within the given distance of a field, e.g. around the
+	 * area the caller is about to walk.
+	 * @param x the x position
+	 * @param y the y position
+	 * @param radius the distance in fields
+	 */
+	public void prefetch(int x, int y, int radius) {
+		int fromX = Math.max(0, x - radius) >> TILE_SHIFT;
+		int toX = Math.min(width - 1, x + radius) >> TILE_SHIFT;
+		int fromY = Math.max(0, y - radius) >> TILE_SHIFT;
+		int toY = Math.min(height - 1, y + radius) >> TILE_SHIFT;
+		for (int ty = fromY; ty <= toY; ty++) {
+			for (int tx = fromX; tx <= toX; tx++) {
+				tile(tx << TILE_SHIFT, ty << TILE_SHIFT);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of tiles currently in memory, including changed tiles
+	 * that are not in the cache.
+	 * @return the number of tiles
+	 */
+	public int getLoadedTiles() {
+		return tiles.size() + changed.size();
+	}
+
+	/**
+	 * Returns how often a tile was asked from the source.
+	 * @return the number of generated or loaded tiles
+	 */
+	public long getLoads() {
+		return loads;
+	}
+
+	/**
+	 * Returns the tile holding the field at (x, y), loading it if needed.
+	 * @param x the x position
+	 * @param y the y position
+	 * @return the cells of the tile
+	 * @throws IndexOutOfBoundsException if (x, y) is outside the board
+	 */
+	private byte[] tile(int x, int y) {
+		// The last tile of a row or column may reach beyond the board
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			throw new IndexOutOfBoundsException("(" + x + ", " + y + ") is outside the " + width + "x" + height + " board");
+		}
+		long key = (long) (y >>> TILE_SHIFT) << 32 | (x >>> TILE_SHIFT);
+		if (key == lastKey) {
+			return lastTile;
+		}
+		byte[] tile = tiles.get(key);
+		if (tile == null) {
+			tile = changed.remove(key);
+			if (tile == null) {
+				tile = spare != null ? spare : new byte[TILE_SIZE * TILE_SIZE];
+				spare = null;
+				source.loadTile(x & ~TILE_MASK, y & ~TILE_MASK, TILE_SIZE, tile);
+				loads++;
+			}
+			tiles.put(key, tile);
+		}
+		lastKey = key;
+		lastTile = tile;
+		return tile;
+	}
+}
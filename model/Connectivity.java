@@ -0,0 +1,186 @@
+package model;
+
+/**
+ * Tells which fields of a {@link Grid} can reach each other.
+ * <p>
+ * All walkable fields are grouped into connected components by a union-find
+ * over a single {@code int[]}, following the links of a {@link NeighborTable}
+ * like the player (walls block, the board wraps around at its edges). Building the index takes one
+ * pass over the board; afterwards every field points directly to the root of
+ * its component, so {@link #componentOf(int, int)} and
+ * {@link #isReachable(int, int, int, int)} are single array lookups. The
+ * roots keep the size of their component in the same array, so the index
+ * takes one {@code int} per field.
+ * The index is rebuilt by {@link #update()} whenever the walls change.
+ */
+public class Connectivity {
+	/** Component value of walls. */
+	public static final int NONE = -1;
+	/** The entry of walls in {@link #parent}, sizes of roots are stored as negative values. */
+	private static final int WALL = Integer.MIN_VALUE;
+
+	/** The grid whose components are indexed. */
+	private final Grid grid;
+	/** The neighbours of every field of the grid. */
+	private final NeighborTable neighbors;
+	/**
+	 * For every field: its parent in the union-find, the root of its component
+	 * after building, or {@link #WALL}. A root holds the negated number of
+	 * fields in its component instead.
+	 */
+	private final int[] parent;
+	/** The wall version of the grid the index was built for. */
+	private int builtVersion = -1;
+
+	/**
+	 * Creates the connectivity index of the given grid, with a neighbour table
+	 * of its own, and builds it.
+	 * @param grid the grid to index
+	 */
+	public Connectivity(Grid grid) {
+		this(new NeighborTable(grid));
+	}
+
+	/**
+	 * Creates the connectivity index sharing the given neighbour table and builds it.
+	 * @param neighbors the neighbours of the grid to index
+	 */
+	public Connectivity(NeighborTable neighbors) {
+		this.grid = neighbors.getGrid();
+		this.neighbors = neighbors;
+		this.parent = new int[grid.size()];
+		build();
+	}
+
+	/**
+	 * Rebuilds the index if the walls of the grid changed since the last build.
+	 */
+	public void update() {
+		if (builtVersion != grid.getWallModCount()) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * Rebuilds the index, in time linear in the board size.
+	 */
+	public void rebuild() {
+		build();
+	}
+
+	/**
+	 * Builds the index. Private so that the constructor does not call a method
+	 * a subclass could override.
+	 */
+	private void build() {
+		neighbors.update();
+		int size = parent.length;
+		for (int i = 0; i < size; i++) {
+			parent[i] = grid.getByte(i) == Grid.WALL ? WALL : -1;
+		}
+		// Join every field with its open right and lower neighbour, the links wrap around the edges
+		for (int cell = 0; cell < size; cell++) {
+			if (parent[cell] == WALL) {
+				continue;
+			}
+			if (neighbors.isOpen(cell, NeighborTable.RIGHT)) {
+				union(cell, neighbors.neighbor(cell, NeighborTable.RIGHT));
+			}
+			if (neighbors.isOpen(cell, NeighborTable.DOWN)) {
+				union(cell, neighbors.neighbor(cell, NeighborTable.DOWN));
+			}
+		}
+		// Point every field directly to its root
+		for (int i = 0; i < size; i++) {
+			if (parent[i] >= 0) {
+				parent[i] = find(i);
+			}
+		}
+		builtVersion = grid.getWallModCount();
+	}
+
+	/**
+	 * Returns the component of the field at (x, y).
+	 * @param x the x position
+	 * @param y the y position
+	 * @return the index of the component's root field, or {@link #NONE} for walls
+	 */
+	public int componentOf(int x, int y) {
+		return componentOf(grid.index(x, y));
+	}
+
+	/**
+	 * Returns the component of a field.
+	 * @param index the row-major index of the field
+	 * @return the index of the component's root field, or {@link #NONE} for walls
+	 */
+	public int componentOf(int index) {
+		int entry = parent[index];
+		if (entry >= 0) {
+			return entry;
+		}
+		return entry == WALL ? NONE : index;
+	}
+
+	/**
+	 * Returns the number of fields in the component of a field.
+	 * @param index the row-major index of the field
+	 * @return the size of the component, 0 for walls
+	 */
+	public int componentSize(int index) {
+		int root = componentOf(index);
+		return root == NONE ? 0 : -parent[root];
+	}
+
+	/**
+	 * Checks if the player could walk from one field to another.
+	 * @param fromX the x position of the first field
+	 * @param fromY the y position of the first field
+	 * @param toX the x position of the second field
+	 * @param toY the y position of the second field
+	 * @return true if both fields are walkable and connected
+	 */
+	public boolean isReachable(int fromX, int fromY, int toX, int toY) {
+		int from = componentOf(fromX, fromY);
+		return from != NONE && from == componentOf(toX, toY);
+	}
+
+	/**
+	 * Joins the components of two walkable fields. The smaller component is
+	 * attached to the larger one.
+	 * @param a a walkable field
+	 * @param b a walkable neighbouring field
+	 */
+	private void union(int a, int b) {
+		int rootA = find(a);
+		int rootB = find(b);
+		if (rootA == rootB) {
+			return;
+		}
+		// The sizes are negative, the larger component holds the smaller value
+		if (parent[rootA] > parent[rootB]) {
+			int swap = rootA;
+			rootA = rootB;
+			rootB = swap;
+		}
+		parent[rootA] += parent[rootB];
+		parent[rootB] = rootA;
+	}
+
+	/**
+	 * Finds the root of a field's component, halving the path on the way.
+	 * @param cell a walkable field
+	 * @return the root field
+	 */
+	private int find(int cell) {
+		while (parent[cell] >= 0) {
+			int next = parent[cell];
+			if (parent[next] < 0) {
+				return next;
+			}
+			parent[cell] = parent[next];
+			cell = parent[cell];
+		}
+		return cell;
+	}
+}
@@ -0,0 +1,31 @@
+package model;
+
+/**
+ * The red enemy: always heads straight for the player and retreats to the top
+ * right corner when scattering.
+ */
+public class DirectChaseStrategy implements GhostStrategy {
+
+	/**
+	 * Targets the field of the player.
+	 * @param planner the planner moving the enemy
+	 * @param slot the enemy's slot
+	 * @return the player's field
+	 */
+	@Override
+	public int chaseTarget(GhostPlanner planner, int slot) {
+		return planner.cell(planner.getPlayerX(), planner.getPlayerY());
+	}
+
+	/**
+	 * Targets the top right corner.
+	 * @param planner the planner moving the enemy
+	 * @param slot the enemy's slot
+	 * @return the top right field
+	 */
+	@Override
+	public int scatterTarget(GhostPlanner planner, int slot) {
+		return planner.cell(planner.getWidth() - 1, 0);
+	}
+
+}
@@ -0,0 +1,170 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Distance from every walkable field of a {@link Grid} to one target field.
+ * <p>
+ * The distances are computed by a single breadth-first search over a
+ * {@link NeighborTable}, so it follows the same rules as the player (walls
+ * block, the board wraps around at its edges).
+ * The search only runs again when the target changes, so an enemy can find its
+ * next step towards the player by looking at its four neighbours. A search may
+ * be limited to a maximum distance, then it only costs as much as the fields
+ * it reaches. All arrays are allocated once and reused for every search, and
+ * only the fields reached by the last search are reset.
+ */
+public class DistanceField {
+	/** Distance value of fields that cannot reach the target (or are walls). */
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	/** The grid the distances are computed on. */
+	private final Grid grid;
+	/** The neighbours of every field of the grid. */
+	private final NeighborTable neighbors;
+	/** Distance to the target for every cell, in row-major order. */
+	private final int[] distances;
+	/**
+	 * The BFS queue holding cell indices. Every cell is enqueued at most once,
+	 * so after a search it lists the reached fields in order of distance.
+	 */
+	private final int[] queue;
+	/** The number of fields reached by the last search, the used part of {@link #queue}. */
+	private int reached;
+	/** The index of the current target, or -1 if nothing has been computed yet. */
+	private int target = -1;
+	/** The wall version of the grid the distances were computed for. */
+	private int builtVersion = -1;
+	/** The largest distance computed by the last search. */
+	private int builtLimit = UNREACHABLE;
+
+	/**
+	 * Creates a new distance field for the given grid, with a neighbour table
+	 * of its own.
+	 * @param grid the grid to compute distances on
+	 */
+	public DistanceField(Grid grid) {
+		this(new NeighborTable(grid));
+	}
+
+	/**
+	 * Creates a new distance field sharing the given neighbour table.
+	 * @param neighbors the neighbours of the grid to compute distances on
+	 */
+	public DistanceField(NeighborTable neighbors) {
+		this.grid = neighbors.getGrid();
+		this.neighbors = neighbors;
+		this.distances = new int[grid.size()];
+		this.queue = new int[grid.size()];
+		Arrays.fill(distances, UNREACHABLE);
+	}
+
+	/**
+	 * Makes sure the distances point to the field at (x, y). The search only
+	 * runs if the target or the walls differ from the last search.
+	 * @param x the target's x position
+	 * @param y the target's y position
+	 */
+	public void update(int x, int y) {
+		update(x, y, UNREACHABLE);
+	}
+
+	/**
+	 * Makes sure the distances up to the given limit point to the field at
+	 * (x, y), see {@link #rebuild(int, int)}. The search only runs if the
+	 * target, the limit or the walls differ from the last search.
+	 * @param x the target's x position
+	 * @param y the target's y position
+	 * @param maxDistance the largest distance to compute
+	 */
+	public void update(int x, int y, int maxDistance) {
+		int index = grid.index(x, y);
+		if (index != target || maxDistance != builtLimit || builtVersion != grid.getWallModCount()) {
+			rebuild(index, maxDistance);
+		}
+	}
+
+	/**
+	 * Recomputes all distances towards the given cell.
+	 * @param targetIndex the row-major index of the target
+	 */
+	public void rebuild(int targetIndex) {
+		rebuild(targetIndex, UNREACHABLE);
+	}
+
+	/**
+	 * Recomputes the distances towards the given cell, but stops at the given
+	 * distance: fields farther away are {@link #UNREACHABLE} like fields that
+	 * cannot reach the target at all.
+	 * @param targetIndex the row-major index of the target
+	 * @param maxDistance the largest distance to compute
+	 * @return the number of fields reached, see {@link #getReachedCell(int)}
+	 */
+	public int rebuild(int targetIndex, int maxDistance) {
+		neighbors.update();
+		// Only the fields reached by the last search hold a distance
+		for (int i = 0; i < reached; i++) {
+			distances[queue[i]] = UNREACHABLE;
+		}
+		reached = 0;
+		target = targetIndex;
+		builtLimit = maxDistance;
+		builtVersion = grid.getWallModCount();
+		if (grid.getByte(targetIndex) == Grid.WALL) {
+			return 0; // Nothing can reach a wall
+		}
+		int head = 0;
+		int tail = 0;
+		distances[targetIndex] = 0;
+		queue[tail++] = targetIndex;
+		while (head < tail) {
+			int cell = queue[head++];
+			if (distances[cell] >= maxDistance) {
+				break; // The queue is ordered by distance, all remaining fields are this far
+			}
+			int next = distances[cell] + 1;
+			// Only the open neighbours, the table already knows the walls and the wrap links
+			int open = neighbors.openDirections(cell);
+			for (int dir = 0; open != 0; dir++, open >>= 1) {
+				if ((open & 1) != 0) {
+					int neighbor = neighbors.neighbor(cell, dir);
+					if (distances[neighbor] == UNREACHABLE) {
+						distances[neighbor] = next;
+						queue[tail++] = neighbor;
+					}
+				}
+			}
+		}
+		reached = tail;
+		return tail;
+	}
+
+	/**
+	 * Returns the distance from (x, y) to the target.
+	 * @param x the x position
+	 * @param y the y position
+	 * @return the number of steps, or {@link #UNREACHABLE}
+	 */
+	public int get(int x, int y) {
+		return distances[grid.index(x, y)];
+	}
+
+	/**
+	 * Returns the distance from the given cell to the target.
+	 * @param index the row-major index
+	 * @return the number of steps, or {@link #UNREACHABLE}
+	 */
+	public int get(int index) {
+		return distances[index];
+	}
+
+	/**
+	 * Returns a field reached by the last search. The fields are ordered by
+	 * their distance, the target first.
+	 * @param i the position, below the number returned by {@link #rebuild(int, int)}
+	 * @return the row-major index of the field
+	 */
+	public int getReachedCell(int i) {
+		return queue[i];
+	}
+}
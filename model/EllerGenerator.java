@@ -0,0 +1,117 @@
+package model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a perfect maze row by row with Eller's algorithm.
+ * <p>
+ * Only the sets of the current row are remembered, so apart from the grid
+ * itself the generator needs memory proportional to the board's width, no
+ * matter how high the board is. Each finished pair of rows (the passage row
+ * and the wall row below it) is written to the grid in one go. Passages lie on
+ * the odd coordinates like in {@link RecursiveBacktrackerGenerator}.
+ */
+public class EllerGenerator implements MazeGenerator {
+
+	/**
+	 * Fills the grid with a maze.
+	 * @param grid the grid to fill
+	 * @param seed the seed for all random decisions
+	 */
+	@Override
+	public void generate(Grid grid, long seed) {
+		int width = grid.getWidth();
+		int cellsX = (width - 1) / 2;
+		int cellsY = (grid.getHeight() - 1) / 2;
+		grid.fill(FieldType.WALL);
+		if (cellsX <= 0 || cellsY <= 0) {
+			return; // Board too small for a single passage
+		}
+		SplittableRandom random = new SplittableRandom(seed);
+		// Set label of every passage in the current row, labels are always < cellsX
+		int[] sets = new int[cellsX];
+		// Union-find over the labels of the current row
+		int[] parent = new int[cellsX];
+		// Per set: passages left to look at, and whether it already goes down
+		int[] remaining = new int[cellsX];
+		boolean[] goesDown = new boolean[cellsX];
+		// Per old set: its label in the next row, or -1
+		int[] relabel = new int[cellsX];
+		boolean[] down = new boolean[cellsX];
+		byte[] passageRow = new byte[width];
+		byte[] wallRow = new byte[width];
+
+		for (int c = 0; c < cellsX; c++) {
+			sets[c] = c;
+		}
+		for (int cy = 0; cy < cellsY; cy++) {
+			boolean lastRow = cy == cellsY - 1;
+			Arrays.fill(passageRow, Grid.WALL);
+			Arrays.fill(wallRow, Grid.WALL);
+			for (int c = 0; c < cellsX; c++) {
+				parent[c] = c;
+				passageRow[2 * c + 1] = Grid.DOT;
+			}
+
+			// Join neighbouring passages of different sets at random (always in the last row)
+			for (int c = 0; c < cellsX - 1; c++) {
+				int a = find(parent, sets[c]);
+				int b = find(parent, sets[c + 1]);
+				if (a != b && (lastRow || random.nextBoolean())) {
+					parent[b] = a;
+					passageRow[2 * c + 2] = Grid.DOT;
+				}
+			}
+
+			if (!lastRow) {
+				// Every set must go down at least once, otherwise it would be cut off
+				Arrays.fill(remaining, 0);
+				Arrays.fill(goesDown, false);
+				for (int c = 0; c < cellsX; c++) {
+					remaining[find(parent, sets[c])]++;
+				}
+				for (int c = 0; c < cellsX; c++) {
+					int set = find(parent, sets[c]);
+					remaining[set]--;
+					down[c] = random.nextBoolean() || (remaining[set] == 0 && !goesDown[set]);
+					if (down[c]) {
+						goesDown[set] = true;
+						wallRow[2 * c + 1] = Grid.DOT;
+					}
+				}
+				// Passages going down keep their set, all others start a new one
+				Arrays.fill(relabel, -1);
+				int nextLabel = 0;
+				for (int c = 0; c < cellsX; c++) {
+					if (down[c]) {
+						int set = find(parent, sets[c]);
+						if (relabel[set] < 0) {
+							relabel[set] = nextLabel++;
+						}
+					}
+				}
+				for (int c = 0; c < cellsX; c++) {
+					sets[c] = down[c] ? relabel[find(parent, sets[c])] : nextLabel++;
+				}
+			}
+
+			grid.setRow(2 * cy + 1, passageRow);
+			grid.setRow(2 * cy + 2, wallRow);
+		}
+	}
+
+	/**
+	 * Finds the representative of the given label (with path halving).
+	 * @param parent the union-find parent array
+	 * @param label the label
+	 * @return the representative label
+	 */
+	private static int find(int[] parent, int label) {
+		while (parent[label] != label) {
+			parent[label] = parent[parent[label]];
+			label = parent[label];
+		}
+		return label;
+	}
+}
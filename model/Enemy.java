@@ -3,13 +3,22 @@ package model;
 /**
  * Represents an enemy in the game world.
  * Each enemy has a position (x, y) and a name (e.g. color or type).
+ * <p>
+ * The data of an enemy is stored in a slot of an {@link EnemyPool}; this
+ * object is only a view onto that slot. An enemy that is in no pool (created
+ * with the public constructor, or removed from its world) keeps its data in
+ * its own fields.
  */
 public class Enemy {
-    /** The x position of the enemy on the board. */
-    private int enemyX;
-    /** The y position of the enemy on the board. */
-    private int enemyY;
-    /** The name or type of the enemy (e.g. "red", "pink"). */
+    /** The pool holding the data of this enemy, or null. */
+    private EnemyPool pool;
+    /** The slot of this enemy in the pool. */
+    private int slot;
+    /** The x position while the enemy is in no pool. */
+    private int x;
+    /** The y position while the enemy is in no pool. */
+    private int y;
+    /** The name while the enemy is in no pool. */
     private String name;
 
     /**
@@ -19,17 +28,27 @@ public class Enemy {
      * @param name the name or type of the enemy
      */
     public Enemy (int startX, int startY, String name) {
-        this.enemyX = startX;
-        this.enemyY = startY;
+        this.x = startX;
+        this.y = startY;
         this.name = name;
     }
 
+    /**
+     * Creates a view onto an enemy that already exists in a pool.
+     * @param pool the pool holding the enemy
+     * @param slot the slot of the enemy in the pool
+     */
+    Enemy(EnemyPool pool, int slot) {
+        this.pool = pool;
+        this.slot = slot;
+    }
+
     /**
      * Returns the x position of the enemy.
      * @return the x position
      */
     public int getX() {
-        return enemyX;
+        return pool != null ? pool.getX(slot) : x;
     }
 
     /**
@@ -37,7 +56,7 @@ public class Enemy {
      * @return the y position
      */
     public int getY() {
-        return enemyY;
+        return pool != null ? pool.getY(slot) : y;
     }
 
     /**
@@ -45,7 +64,7 @@ public class Enemy {
      * @return the name
      */
     public String getName() {
-        return name;
+        return pool != null ? pool.getName(slot) : name;
     }
 
     /**
@@ -53,7 +72,11 @@ public class Enemy {
      * @param enemyX the new x position
      */
     public void setEnemyX(int enemyX) {
-        this.enemyX = enemyX; // Update enemy's x coordinate
+        if (pool != null) {
+            pool.setX(slot, enemyX); // Update enemy's x coordinate
+        } else {
+            x = enemyX;
+        }
     }
 
     /**
@@ -61,7 +84,11 @@ public class Enemy {
      * @param enemyY the new y position
      */
     public void setEnemyY(int enemyY) {
-        this.enemyY = enemyY; // Update enemy's y coordinate
+        if (pool != null) {
+            pool.setY(slot, enemyY); // Update enemy's y coordinate
+        } else {
+            y = enemyY;
+        }
     }
 
     /**
@@ -69,6 +96,49 @@ public class Enemy {
      * @param name the new name
      */
     public void setName(String name) {
-        this.name = name; // Update enemy's name/type
+        if (pool != null) {
+            pool.setName(slot, name); // Update enemy's name/type
+        } else {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Moves the data of this enemy into another pool, removing it from the one
+     * it was in. From then on this object is a view onto the new slot.
+     * @param target the pool to move the enemy into
+     */
+    void moveTo(EnemyPool target) {
+        if (pool == target) {
+            return;
+        }
+        int newX = getX();
+        int newY = getY();
+        String newName = getName();
+        if (pool != null) {
+            pool.remove(slot);
+        }
+        pool = target;
+        slot = target.add(newX, newY, newName, this);
+    }
+
+    /**
+     * Copies the data of this enemy out of its pool, which is about to drop
+     * it. From then on the enemy is in no pool and keeps its last state.
+     */
+    void detach() {
+        x = getX();
+        y = getY();
+        name = getName();
+        pool = null;
+    }
+
+    /**
+     * Points this view at another slot of its pool, after the pool moved the
+     * data of the enemy there.
+     * @param slot the new slot
+     */
+    void setSlot(int slot) {
+        this.slot = slot;
     }
 }
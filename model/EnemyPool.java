@@ -0,0 +1,261 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Stores the enemies of a world as a structure of arrays.
+ * <p>
+ * The positions of all enemies live in two parallel {@code int[]} arrays and
+ * their types in a {@code byte[]}, indexed by the enemy's slot. Moving all
+ * enemies is therefore a tight loop over a few small arrays instead of a walk
+ * over many separate objects. {@link Enemy} objects are only thin views onto a
+ * slot of a pool; the pool keeps one per slot, in slot order. If an
+ * {@link OccupancyIndex} is given, the pool keeps it up to date whenever an
+ * enemy is added, moves or is removed.
+ */
+public class EnemyPool {
+	/** The x positions of all enemies. */
+	private int[] xs;
+	/** The y positions of all enemies. */
+	private int[] ys;
+	/** The types of all enemies, as indices into {@link #typeNames}. */
+	private byte[] types;
+	/** The number of enemies in the pool. */
+	private int size;
+	/** The names of all types used in this pool (e.g. "red", "pink"). */
+	private String[] typeNames = {"red", "cyan", "orange", "pink"};
+	/** The number of valid entries in {@link #typeNames}. */
+	private int typeCount = typeNames.length;
+	/** The occupancy index to keep up to date, or null. */
+	private final OccupancyIndex occupancy;
+	/** The views onto all slots, the view of slot i at index i. */
+	private final ArrayList<Enemy> enemies = new ArrayList<>();
+
+	/**
+	 * Creates an empty pool.
+	 * @param capacity the number of enemies the pool can hold before it grows
+	 * @param occupancy the occupancy index to keep up to date, or null
+	 */
+	public EnemyPool(int capacity, OccupancyIndex occupancy) {
+		capacity = Math.max(1, capacity);
+		this.xs = new int[capacity];
+		this.ys = new int[capacity];
+		this.types = new byte[capacity];
+		this.occupancy = occupancy;
+	}
+
+	/**
+	 * Adds an enemy to the pool.
+	 * @param x the x position
+	 * @param y the y position
+	 * @param name the name or type of the enemy
+	 * @return the slot of the new enemy
+	 */
+	public int add(int x, int y, String name) {
+		return add(x, y, name, null);
+	}
+
+	/**
+	 * Adds an enemy to the pool.
+	 * @param x the x position
+	 * @param y the y position
+	 * @param name the name or type of the enemy
+	 * @param view the view onto the new slot, or null to create one
+	 * @return the slot of the new enemy
+	 */
+	int add(int x, int y, String name, Enemy view) {
+		if (size == xs.length) {
+			int capacity = xs.length * 2;
+			xs = Arrays.copyOf(xs, capacity);
+			ys = Arrays.copyOf(ys, capacity);
+			types = Arrays.copyOf(types, capacity);
+		}
+		xs[size] = x;
+		ys[size] = y;
+		types[size] = typeOf(name);
+		if (occupancy != null) {
+			occupancy.add(x, y);
+		}
+		enemies.add(view != null ? view : new Enemy(this, size));
+		return size++;
+	}
+
+	/**
+	 * Removes an enemy from the pool (and from the occupancy index). The last
+	 * enemy takes over its slot, so the slots stay contiguous.
+	 * @param slot the enemy's slot
+	 */
+	void remove(int slot) {
+		if (occupancy != null) {
+			occupancy.remove(xs[slot], ys[slot]);
+		}
+		int last = --size;
+		Enemy moved = enemies.remove(last);
+		if (slot != last) {
+			xs[slot] = xs[last];
+			ys[slot] = ys[last];
+			types[slot] = types[last];
+			moved.setSlot(slot);
+			enemies.set(slot, moved);
+		}
+	}
+
+	/**
+	 * Removes all enemies from the pool (and from the occupancy index). Their
+	 * views keep the last position, see {@link Enemy#detach()}.
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			if (occupancy != null) {
+				occupancy.remove(xs[i], ys[i]);
+			}
+			enemies.get(i).detach();
+		}
+		enemies.clear();
+		size = 0;
+	}
+
+	/**
+	 * Returns the views onto all slots, the view of slot i at index i. The list
+	 * must not be changed, enemies are added and removed through the pool.
+	 * @return the enemies
+	 */
+	ArrayList<Enemy> getEnemies() {
+		return enemies;
+	}
+
+	/**
+	 * Returns the number of enemies in the pool.
+	 * @return the number of enemies
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the x position of an enemy.
+	 * @param slot the enemy's slot
+	 * @return the x position
+	 */
+	public int getX(int slot) {
+		return xs[slot];
+	}
+
+	/**
+	 * Returns the y position of an enemy.
+	 * @param slot the enemy's slot
+	 * @return the y position
+	 */
+	public int getY(int slot) {
+		return ys[slot];
+	}
+
+	/**
+	 * Returns the array of x positions for bulk reads. Only the first
+	 * {@link #size()} entries are valid, and the array must not be written.
+	 * @return the x positions
+	 */
+	int[] getXArray() {
+		return xs;
+	}
+
+	/**
+	 * Returns the array of y positions for bulk reads. Only the first
+	 * {@link #size()} entries are valid, and the array must not be written.
+	 * @return the y positions
+	 */
+	int[] getYArray() {
+		return ys;
+	}
+
+	/**
+	 * Returns the type of an enemy.
+	 * @param slot the enemy's slot
+	 * @return the type, see {@link #getTypeName(byte)}
+	 */
+	public byte getType(int slot) {
+		return types[slot];
+	}
+
+	/**
+	 * Returns the name of a type.
+	 * @param type the type
+	 * @return the name (e.g. "red")
+	 */
+	public String getTypeName(byte type) {
+		return typeNames[type];
+	}
+
+	/**
+	 * Returns the name or type of an enemy.
+	 * @param slot the enemy's slot
+	 * @return the name
+	 */
+	public String getName(int slot) {
+		return typeNames[types[slot]];
+	}
+
+	/**
+	 * Sets the x position of an enemy.
+	 * @param slot the enemy's slot
+	 * @param x the new x position
+	 */
+	public void setX(int slot, int x) {
+		setPosition(slot, x, ys[slot]);
+	}
+
+	/**
+	 * Sets the y position of an enemy.
+	 * @param slot the enemy's slot
+	 * @param y the new y position
+	 */
+	public void setY(int slot, int y) {
+		setPosition(slot, xs[slot], y);
+	}
+
+	/**
+	 * Moves an enemy to a new position.
+	 * @param slot the enemy's slot
+	 * @param x the new x position
+	 * @param y the new y position
+	 */
+	public void setPosition(int slot, int x, int y) {
+		if (occupancy != null) {
+			occupancy.move(xs[slot], ys[slot], x, y);
+		}
+		xs[slot] = x;
+		ys[slot] = y;
+	}
+
+	/**
+	 * Sets the name or type of an enemy.
+	 * @param slot the enemy's slot
+	 * @param name the new name
+	 */
+	public void setName(int slot, String name) {
+		types[slot] = typeOf(name);
+	}
+
+	/**
+	 * Returns the type for a name, registering the name if it is new.
+	 * @param name the name, may be null like the name of an enemy
+	 * @return the type
+	 */
+	private byte typeOf(String name) {
+		for (int i = 0; i < typeCount; i++) {
+			if (Objects.equals(typeNames[i], name)) {
+				return (byte) i;
+			}
+		}
+		if (typeCount == Byte.MAX_VALUE) {
+			throw new IllegalStateException("Too many enemy types");
+		}
+		if (typeCount == typeNames.length) {
+			typeNames = Arrays.copyOf(typeNames, typeCount * 2);
+		}
+		typeNames[typeCount] = name;
+		return (byte) typeCount++;
+	}
+}
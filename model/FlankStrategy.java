@@ -0,0 +1,39 @@
+package model;
+
+/**
+ * The cyan enemy: takes the vector from the red enemy to the field two steps
+ * ahead of the player and doubles it, so it approaches the player from the
+ * side opposite to the red enemy. Retreats to the bottom right corner when
+ * scattering.
+ */
+public class FlankStrategy implements GhostStrategy {
+	/** How many fields ahead of the player the vector points. */
+	private static final int LOOK_AHEAD = 2;
+
+	/**
+	 * Targets the red enemy's position mirrored at the field ahead of the player.
+	 * @param planner the planner moving the enemy
+	 * @param slot the enemy's slot
+	 * @return the flanking field, clamped to the board
+	 */
+	@Override
+	public int chaseTarget(GhostPlanner planner, int slot) {
+		Direction direction = planner.getPlayerDirection();
+		int pivotX = planner.getPlayerX() + direction.deltaX * LOOK_AHEAD;
+		int pivotY = planner.getPlayerY() + direction.deltaY * LOOK_AHEAD;
+		// Without a red enemy the cyan one is its own leader and simply aims at the pivot
+		return planner.cell(2 * pivotX - planner.getLeaderX(slot), 2 * pivotY - planner.getLeaderY(slot));
+	}
+
+	/**
+	 * Targets the bottom right corner.
+	 * @param planner the planner moving the enemy
+	 * @param slot the enemy's slot
+	 * @return the bottom right field
+	 */
+	@Override
+	public int scatterTarget(GhostPlanner planner, int slot) {
+		return planner.cell(planner.getWidth() - 1, planner.getHeight() - 1);
+	}
+
+}
@@ -0,0 +1,344 @@
+package model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Moves the enemies of a {@link World} in hard mode, each according to the
+ * {@link GhostStrategy} of its type.
+ * <p>
+ * A global timer switches all enemies between scattering to their corners and
+ * chasing the player, following {@link #PHASE_TICKS}. Once per tick the
+ * planner brings the shared {@link DistanceField} to the player up to date
+ * and looks up the leading red enemy; after that every enemy costs a constant
+ * amount of work: its strategy picks a target, and the enemy takes the open
+ * neighbour closest to it. The distance field only reaches
+ * {@link #CHASE_RADIUS} steps around the player and is only searched again
+ * when the player moved, so a tick costs the same on any board size.
+ * Enemies targeting the player follow the distance field while they are
+ * within its reach; all others, and chasers farther away, use the
+ * straight-line distance and do not turn around, so they do not dither in
+ * place. Enemies never step onto a field occupied by another enemy.
+ */
+public class GhostPlanner {
+	/**
+	 * Lengths of the alternating scatter and chase phases in ticks, starting
+	 * with scatter. After the last phase the enemies chase forever.
+	 */
+	private static final int[] PHASE_TICKS = {56, 160, 56, 160, 40, 160, 40};
+	/** The number of steps around the player the distance field reaches. */
+	private static final int CHASE_RADIUS = 64;
+
+	/** The world whose enemies are moved. */
+	private final World world;
+	/** Distances to the player, shared by all enemies. */
+	private final DistanceField toPlayer;
+	/** Strategies set with {@link #setStrategy(String, GhostStrategy)}, by name. */
+	private final Map<String, GhostStrategy> named = new HashMap<>();
+	/** The strategy of every enemy type, by type; filled on first use. */
+	private final GhostStrategy[] strategies = new GhostStrategy[Byte.MAX_VALUE + 1];
+	/** The last direction every enemy moved in plus one, 0 if none. */
+	private byte[] headings = new byte[0];
+	/** The number of ticks planned so far. */
+	private int tick;
+	/** The current phase, an index into {@link #PHASE_TICKS}. */
+	private int phase;
+	/** The slot of the first enemy chasing directly (the red one) in this tick, or -1. */
+	private int leader;
+
+	/**
+	 * Creates a planner for the enemies of the given world.
+	 * @param world the world
+	 */
+	public GhostPlanner(World world) {
+		this.world = world;
+		this.toPlayer = new DistanceField(world.getNeighbors());
+	}
+
+	/**
+	 * Sets the strategy for all enemies with the given name, e.g. to give a
+	 * new enemy type its own behaviour.
+	 * @param name the name or type of the enemies
+	 * @param strategy the strategy to use
+	 */
+	public void setStrategy(String name, GhostStrategy strategy) {
+		named.put(name, strategy);
+		// Resolve the types again on the next tick
+		Arrays.fill(strategies, null);
+	}
+
+	/**
+	 * Returns whether the enemies currently scatter to their corners.
+	 * @return true while scattering, false while chasing
+	 */
+	public boolean isScatter() {
+		return phase < PHASE_TICKS.length && phase % 2 == 0;
+	}
+
+	/**
+	 * Moves every enemy one step.
+	 */
+	public void moveEnemies() {
+		advancePhase();
+		EnemyPool pool = world.getEnemyPool();
+		int count = pool.size();
+		if (headings.length < count) {
+			headings = Arrays.copyOf(headings, Math.max(count, headings.length * 2));
+		}
+		// One shared pass: the distances to the player and the leading red enemy
+		toPlayer.update(world.getPlayerX(), world.getPlayerY(), CHASE_RADIUS);
+		leader = -1;
+		for (int i = 0; i < count; i++) {
+			if (strategyOf(pool, i) instanceof DirectChaseStrategy) {
+				leader = i;
+				break;
+			}
+		}
+		boolean scatter = isScatter();
+		int playerCell = cell(world.getPlayerX(), world.getPlayerY());
+		for (int i = 0; i < count; i++) {
+			GhostStrategy strategy = strategyOf(pool, i);
+			int target = scatter ? strategy.scatterTarget(this, i) : strategy.chaseTarget(this, i);
+			if (target == playerCell) {
+				followField(pool, i, playerCell);
+			} else {
+				steerTowards(pool, i, target);
+			}
+		}
+	}
+
+	/**
+	 * Counts the tick and switches between scattering and chasing. The
+	 * enemies may turn around once after every switch.
+	 */
+	private void advancePhase() {
+		tick++;
+		if (phase < PHASE_TICKS.length && tick > PHASE_TICKS[phase]) {
+			tick = 1;
+			phase++;
+			Arrays.fill(headings, (byte) 0);
+		}
+	}
+
+	/**
+	 * Returns the strategy of an enemy.
+	 * @param pool the enemies
+	 * @param slot the enemy's slot
+	 * @return the strategy of the enemy's type
+	 */
+	private GhostStrategy strategyOf(EnemyPool pool, int slot) {
+		byte type = pool.getType(slot);
+		GhostStrategy strategy = strategies[type];
+		if (strategy == null) {
+			strategy = defaultStrategy(pool.getTypeName(type));
+			strategies[type] = strategy;
+		}
+		return strategy;
+	}
+
+	/**
+	 * Returns the strategy for an enemy type by its name.
+	 * @param name the name of the type
+	 * @return the strategy; unknown types chase the player directly
+	 */
+	private GhostStrategy defaultStrategy(String name) {
+		GhostStrategy strategy = named.get(name);
+		if (strategy != null) {
+			return strategy;
+		}
+		switch (name) {
+			case "pink":
+				return new AmbushStrategy();
+			case "cyan":
+				return new FlankStrategy();
+			case "orange":
+				return new ShyStrategy();
+			default:
+				return new DirectChaseStrategy();
+		}
+	}
+
+	/**
+	 * Moves an enemy one field closer to the player, following the distance
+	 * field. The enemy waits if no free neighbour is closer. Enemies out of
+	 * reach of the field steer towards the player instead.
+	 * @param pool the enemies
+	 * @param slot the enemy's slot
+	 * @param playerCell the row-major index of the player
+	 */
+	private void followField(EnemyPool pool, int slot, int playerCell) {
+		NeighborTable neighbors = world.getNeighbors();
+		OccupancyIndex occupancy = world.getOccupancy();
+		int cell = cell(pool.getX(slot), pool.getY(slot));
+		int best = toPlayer.get(cell);
+		if (best == DistanceField.UNREACHABLE) {
+			steerTowards(pool, slot, playerCell);
+			return;
+		}
+		int bestCell = cell;
+		int bestDir = -1;
+		int open = neighbors.openDirections(cell);
+		for (int dir = 0; open != 0; dir++, open >>= 1) {
+			if ((open & 1) == 0) {
+				continue;
+			}
+			int neighbor = neighbors.neighbor(cell, dir);
+			int distance = toPlayer.get(neighbor);
+			if (distance < best && !occupancy.isOccupied(neighbor)) {
+				best = distance;
+				bestCell = neighbor;
+				bestDir = dir;
+			}
+		}
+		moveTo(pool, slot, bestCell, bestDir);
+	}
+
+	/**
+	 * Moves an enemy to the free open neighbour with the smallest straight-line
+	 * distance to the target. The enemy does not turn around unless it is in
+	 * a dead end.
+	 * @param pool the enemies
+	 * @param slot the enemy's slot
+	 * @param target the row-major index of the target
+	 */
+	private void steerTowards(EnemyPool pool, int slot, int target) {
+		NeighborTable neighbors = world.getNeighbors();
+		OccupancyIndex occupancy = world.getOccupancy();
+		int width = world.getWidth();
+		int targetY = target / width;
+		int targetX = target - targetY * width;
+		int cell = cell(pool.getX(slot), pool.getY(slot));
+		int open = neighbors.openDirections(cell);
+		int heading = headings[slot] - 1;
+		if (heading >= 0) {
+			// The directions come in opposite pairs, so the reverse only differs in the last bit
+			int forward = open & ~(1 << (heading ^ 1));
+			if (forward != 0) {
+				open = forward;
+			}
+		}
+		int bestCell = cell;
+		int bestDir = -1;
+		long best = Long.MAX_VALUE;
+		for (int dir = 0; open != 0; dir++, open >>= 1) {
+			if ((open & 1) == 0) {
+				continue;
+			}
+			int neighbor = neighbors.neighbor(cell, dir);
+			if (occupancy.isOccupied(neighbor)) {
+				continue;
+			}
+			int y = neighbor / width;
+			long dx = neighbor - y * width - targetX;
+			long dy = y - targetY;
+			long distance = dx * dx + dy * dy;
+			if (distance < best) {
+				best = distance;
+				bestCell = neighbor;
+				bestDir = dir;
+			}
+		}
+		moveTo(pool, slot, bestCell, bestDir);
+	}
+
+	/**
+	 * Moves an enemy and remembers its heading.
+	 * @param pool the enemies
+	 * @param slot the enemy's slot
+	 * @param cell the new field
+	 * @param dir the direction moved in, or -1 if the enemy waits
+	 */
+	private void moveTo(EnemyPool pool, int slot, int cell, int dir) {
+		if (dir < 0) {
+			return;
+		}
+		int width = world.getWidth();
+		int y = cell / width;
+		pool.setPosition(slot, cell - y * width, y);
+		headings[slot] = (byte) (dir + 1);
+	}
+
+	/**
+	 * Returns the index of the field at (x, y), clamped to the board.
+	 * @param x the x position, may lie outside the board
+	 * @param y the y position, may lie outside the board
+	 * @return the row-major index of the nearest field on the board
+	 */
+	public int cell(int x, int y) {
+		x = Math.max(0, Math.min(world.getWidth() - 1, x));
+		y = Math.max(0, Math.min(world.getHeight() - 1, y));
+		return y * world.getWidth() + x;
+	}
+
+	/**
+	 * Returns the width of the board.
+	 * @return the width
+	 */
+	public int getWidth() {
+		return world.getWidth();
+	}
+
+	/**
+	 * Returns the height of the board.
+	 * @return the height
+	 */
+	public int getHeight() {
+		return world.getHeight();
+	}
+
+	/**
+	 * Returns the x position of the player.
+	 * @return the x position
+	 */
+	public int getPlayerX() {
+		return world.getPlayerX();
+	}
+
+	/**
+	 * Returns the y position of the player.
+	 * @return the y position
+	 */
+	public int getPlayerY() {
+		return world.getPlayerY();
+	}
+
+	/**
+	 * Returns the direction the player is facing.
+	 * @return the direction of the player's last move
+	 */
+	public Direction getPlayerDirection() {
+		return world.getPlayerDirection();
+	}
+
+	/**
+	 * Returns the x position of the first red enemy, or of the given enemy if
+	 * there is no red one.
+	 * @param slot the asking enemy's slot
+	 * @return the x position
+	 */
+	public int getLeaderX(int slot) {
+		return world.getEnemyPool().getX(leader >= 0 ? leader : slot);
+	}
+
+	/**
+	 * Returns the y position of the first red enemy, or of the given enemy if
+	 * there is no red one.
+	 * @param slot the asking enemy's slot
+	 * @return the y position
+	 */
+	public int getLeaderY(int slot) {
+		return world.getEnemyPool().getY(leader >= 0 ? leader : slot);
+	}
+
+	/**
+	 * Returns the number of steps from an enemy to the player.
+	 * @param slot the enemy's slot
+	 * @return the distance, or {@link DistanceField#UNREACHABLE} if the enemy
+	 * is more than {@link #CHASE_RADIUS} steps away
+	 */
+	public int getDistanceToPlayer(int slot) {
+		EnemyPool pool = world.getEnemyPool();
+		return toPlayer.get(cell(pool.getX(slot), pool.getY(slot)));
+	}
+}
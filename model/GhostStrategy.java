@@ -0,0 +1,30 @@
+package model;
+
+/**
+ * Chooses where one type of enemy wants to go in hard mode.
+ * <p>
+ * A strategy only picks a target field; the {@link GhostPlanner} then moves
+ * the enemy one step towards it. Strategies must not search the maze
+ * themselves, everything they need (the player, the leading red enemy and the
+ * distance to the player) is prepared by the planner once per tick, so a
+ * strategy costs a constant amount of work per enemy.
+ */
+public interface GhostStrategy {
+
+	/**
+	 * Returns the field the enemy heads for while the enemies chase the player.
+	 * @param planner the planner moving the enemy
+	 * @param slot the enemy's slot in the {@link EnemyPool}
+	 * @return the row-major index of the target, see {@link GhostPlanner#cell(int, int)}
+	 */
+	int chaseTarget(GhostPlanner planner, int slot);
+
+	/**
+	 * Returns the field the enemy heads for while the enemies scatter.
+	 * @param planner the planner moving the enemy
+	 * @param slot the enemy's slot in the {@link EnemyPool}
+	 * @return the row-major index of the target, usually a corner of the board
+	 */
+	int scatterTarget(GhostPlanner planner, int slot);
+
+}
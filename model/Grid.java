@@ -0,0 +1,354 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Compact storage for the field layout of a world.
+ * <p>
+ * All cells are kept in one flat {@code byte[]} in row-major order, so the cell
+ * at (x, y) lives at index {@code y * width + x}. Every byte holds the ordinal of
+ * a {@link FieldType}. Compared to a {@code FieldType[][]} this needs one byte
+ * per cell instead of one reference per cell plus one array header per column.
+ * <p>
+ * The grid also keeps track of the dots: their number, and a bitset with one
+ * bit per cell (one or more {@code long} words per row). Asking how many dots
+ * are left costs nothing, and finding the dots of a row skips 64 cells at a
+ * time instead of scanning every cell.
+ * <p>
+ * The last {@link #CHANGE_LOG_SIZE} changed cells are logged, so a copy of the
+ * grid can catch up by copying just those (see
+ * {@link #copyChangesTo(byte[], int)}) instead of the whole board.
+ */
+public class Grid implements Board {
+	/** All field types, indexed by their ordinal (avoids cloning values() on every lookup). */
+	private static final FieldType[] TYPES = FieldType.values();
+	/** The number of single cell changes kept in {@link #changeLog}, a power of two. */
+	public static final int CHANGE_LOG_SIZE = 4096;
+	/** Byte value of an empty field. */
+	public static final byte EMPTY = (byte) FieldType.EMPTY.ordinal();
+	/** Byte value of a wall field. */
+	public static final byte WALL = (byte) FieldType.WALL.ordinal();
+	/** Byte value of a dot field. */
+	public static final byte DOT = (byte) FieldType.DOT.ordinal();
+
+	/** The grid's width. */
+	private final int width;
+	/** The grid's height. */
+	private final int height;
+	/** The cells in row-major order. */
+	private final byte[] cells;
+	/** Incremented on every change, lets cached views detect that they are stale. */
+	private int modCount;
+	/** Incremented whenever walls are added or removed. */
+	private int wallModCount;
+	/** The index of the cell changed at every modification count, modulo {@link #CHANGE_LOG_SIZE}. */
+	private final int[] changeLog = new int[CHANGE_LOG_SIZE];
+	/** The modification count of the last change that was not logged, e.g. a whole row. */
+	private int unloggedModCount;
+	/** The number of {@code long} words per row in {@link #dotBits}. */
+	private final int wordsPerRow;
+	/** One bit per cell that is set for dots, row by row. */
+	private final long[] dotBits;
+	/** The number of dot fields. */
+	private int dotCount;
+
+	/**
+	 * Creates a new grid of the given size with all fields set to {@link FieldType#EMPTY}.
+	 * @param width the width of the grid
+	 * @param height the height of the grid
+	 */
+	public Grid(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.cells = new byte[width * height]; // 0 == EMPTY
+		this.wordsPerRow = (width + 63) >>> 6;
+		this.dotBits = new long[wordsPerRow * height];
+	}
+
+	/**
+	 * Returns the width of the grid.
+	 * @return the width
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the grid.
+	 * @return the height
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the number of cells in the grid.
+	 * @return width times height
+	 */
+	public int size() {
+		return cells.length;
+	}
+
+	/**
+	 * Returns the modification counter of the grid.
+	 * @return a number that changes whenever a cell changes
+	 */
+	public int getModCount() {
+		return modCount;
+	}
+
+	/**
+	 * Returns the wall modification counter of the grid. Unlike
+	 * {@link #getModCount()} it does not change when a dot is eaten, so it can be
+	 * used to cache everything that only depends on the walls.
+	 * @return a number that changes whenever a wall is added or removed
+	 */
+	public int getWallModCount() {
+		return wallModCount;
+	}
+
+	/**
+	 * Returns the flat index of the cell at (x, y).
+	 * @param x the x position
+	 * @param y the y position
+	 * @return the row-major index
+	 */
+	public int index(int x, int y) {
+		return y * width + x;
+	}
+
+	/**
+	 * Returns the field type at (x, y).
+	 * @param x the x position
+	 * @param y the y position
+	 * @return the field type
+	 */
+	public FieldType get(int x, int y) {
+		return TYPES[cells[y * width + x]];
+	}
+
+	/**
+	 * Returns the raw byte value at the given flat index.
+	 * @param index the row-major index
+	 * @return the ordinal of the field type
+	 */
+	public byte getByte(int index) {
+		return cells[index];
+	}
+
+	/**
+	 * Checks whether the field at (x, y) is a wall.
+	 * @param x the x position
+	 * @param y the y position
+	 * @return true if the field is a wall
+	 */
+	public boolean isWall(int x, int y) {
+		return cells[y * width + x] == WALL;
+	}
+
+	/**
+	 * Sets the field type at (x, y).
+	 * @param x the x position
+	 * @param y the y position
+	 * @param type the new field type
+	 */
+	public void set(int x, int y, FieldType type) {
+		setByte(y * width + x, (byte) type.ordinal());
+	}
+
+	/**
+	 * Sets the raw byte value at the given flat index.
+	 * @param index the row-major index
+	 * @param value the ordinal of the new field type
+	 */
+	public void setByte(int index, byte value) {
+		if (cells[index] != value) {
+			if (cells[index] == WALL || value == WALL) {
+				wallModCount++;
+			}
+			if (cells[index] == DOT || value == DOT) {
+				// Flip the dot bit of the cell
+				int y = index / width;
+				int x = index - y * width;
+				dotBits[y * wordsPerRow + (x >>> 6)] ^= 1L << x;
+				dotCount += value == DOT ? 1 : -1;
+			}
+			cells[index] = value;
+			modCount++;
+			changeLog[modCount & (CHANGE_LOG_SIZE - 1)] = index;
+		}
+	}
+
+	/**
+	 * Sets every cell of the grid to the given field type.
+	 * @param type the field type
+	 */
+	public void fill(FieldType type) {
+		Arrays.fill(cells, (byte) type.ordinal());
+		for (int y = 0; y < height; y++) {
+			updateDotRow(y);
+		}
+		modCount++;
+		unloggedModCount = modCount;
+		wallModCount++;
+	}
+
+	/**
+	 * Copies one row of the grid into the given array.
+	 * @param y the row
+	 * @param dest the destination, must hold at least {@code width} bytes
+	 */
+	public void copyRow(int y, byte[] dest) {
+		System.arraycopy(cells, y * width, dest, 0, width);
+	}
+
+	/**
+	 * Overwrites one row of the grid with the given values.
+	 * @param y the row
+	 * @param src the source, must hold at least {@code width} bytes
+	 */
+	public void setRow(int y, byte[] src) {
+		System.arraycopy(src, 0, cells, y * width, width);
+		updateDotRow(y);
+		modCount++;
+		unloggedModCount = modCount;
+		wallModCount++;
+	}
+
+	/**
+	 * Recomputes the dot bits and the dot count of one row from its cells.
+	 * @param y the row
+	 */
+	private void updateDotRow(int y) {
+		int first = y * wordsPerRow;
+		for (int i = first; i < first + wordsPerRow; i++) {
+			dotCount -= Long.bitCount(dotBits[i]);
+			dotBits[i] = 0;
+		}
+		int row = y * width;
+		for (int w = 0; w < wordsPerRow; w++) {
+			int end = Math.min(width, (w + 1) << 6);
+			long word = 0;
+			for (int x = w << 6; x < end; x++) {
+				// 1 for a dot, 0 for the other field types, without a branch
+				word |= (long) (((cells[row + x] ^ DOT) - 1) >>> 31) << x;
+			}
+			dotBits[first + w] = word;
+			dotCount += Long.bitCount(word);
+		}
+	}
+
+	/**
+	 * Returns the number of dot fields. Runs in constant time.
+	 * @return the number of dots left
+	 */
+	public int getDotCount() {
+		return dotCount;
+	}
+
+	/**
+	 * Checks whether the field at (x, y) holds a dot, using the dot bitset.
+	 * @param x the x position
+	 * @param y the y position
+	 * @return true if the field is a dot
+	 */
+	public boolean hasDot(int x, int y) {
+		return (dotBits[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+	}
+
+	/**
+	 * Finds the next dot in a row, skipping 64 empty cells per step.
+	 * @param x the first x position to look at
+	 * @param y the row
+	 * @return the x position of the first dot at or after x, or -1 if there is none
+	 */
+	public int nextDot(int x, int y) {
+		if (x >= width) {
+			return -1;
+		}
+		int first = y * wordsPerRow;
+		int i = x >>> 6;
+		long word = dotBits[first + i] & (-1L << x); // Ignore the cells left of x
+		while (word == 0) {
+			if (++i == wordsPerRow) {
+				return -1;
+			}
+			word = dotBits[first + i];
+		}
+		return (i << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	/**
+	 * Counts the dots in a row.
+	 * @param y the row
+	 * @return the number of dots in the row
+	 */
+	public int getDotCount(int y) {
+		int count = 0;
+		int first = y * wordsPerRow;
+		for (int i = first; i < first + wordsPerRow; i++) {
+			count += Long.bitCount(dotBits[i]);
+		}
+		return count;
+	}
+
+	/**
+	 * Copies all cells (row-major) into the given array.
+	 * @param dest the destination, must hold at least {@link #size()} bytes
+	 */
+	public void copyTo(byte[] dest) {
+		System.arraycopy(cells, 0, dest, 0, cells.length);
+	}
+
+	/**
+	 * Brings a copy of the grid up to date by copying only the cells changed
+	 * since it was taken. This is not possible if more than
+	 * {@link #CHANGE_LOG_SIZE} cells changed since then, or whole rows.
+	 * @param dest a copy of all cells, taken at the given modification count
+	 * @param sinceModCount the modification count when the copy was taken
+	 * @return true if the copy is up to date, false if it was not changed and
+	 * must be refreshed with {@link #copyTo(byte[])}
+	 */
+	public boolean copyChangesTo(byte[] dest, int sinceModCount) {
+		int behind = modCount - sinceModCount;
+		if (behind < 0 || behind > CHANGE_LOG_SIZE || behind > modCount - unloggedModCount) {
+			return false;
+		}
+		for (int i = 1; i <= behind; i++) {
+			int cell = changeLog[(sinceModCount + i) & (CHANGE_LOG_SIZE - 1)];
+			dest[cell] = cells[cell];
+		}
+		return true;
+	}
+
+	/**
+	 * Counts the fields of the given type.
+	 * @param type the field type
+	 * @return the number of fields of that type
+	 */
+	public int count(FieldType type) {
+		byte value = (byte) type.ordinal();
+		int count = 0;
+		for (byte cell : cells) {
+			if (cell == value) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Builds a {@code FieldType[x][y]} copy of the grid.
+	 * @return a new array holding the field types
+	 */
+	public FieldType[][] toArray() {
+		FieldType[][] fields = new FieldType[width][height];
+		for (int y = 0; y < height; y++) {
+			int row = y * width;
+			for (int x = 0; x < width; x++) {
+				fields[x][y] = TYPES[cells[row + x]];
+			}
+		}
+		return fields;
+	}
+}
@@ -0,0 +1,220 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a level file written by {@link LevelWriter}.
+ * <p>
+ * The file is mapped into memory read-only, so opening even a very large
+ * level only reads its header, and several games (or processes) playing the
+ * same level share the pages of the file. The cells are decoded straight into
+ * a {@link Grid} one packed byte at a time: a lookup table holds the four
+ * field types of every possible byte, so no cell is parsed on its own. A
+ * reader is a {@link MazeGenerator} for its level, and
+ * {@link #createWorld(boolean, long)} also puts the player, the goal and the
+ * enemies where the level wants them. As a {@link TileSource} it decodes only
+ * the rows of one tile, so a {@link ChunkedGrid} can read levels larger than
+ * memory; playing a level still needs it to fit into a {@link World}.
+ */
+public class LevelReader implements MazeGenerator, TileSource {
+	/** The four field types of every packed byte, four entries per byte value. */
+	private static final byte[] DECODE = new byte[256 * LevelWriter.CELLS_PER_BYTE];
+
+	static {
+		for (int packed = 0; packed < 256; packed++) {
+			for (int i = 0; i < LevelWriter.CELLS_PER_BYTE; i++) {
+				int value = (packed >>> (i * LevelWriter.CELL_BITS)) & 0b11;
+				// The unused fourth value is read as a wall
+				DECODE[packed * LevelWriter.CELLS_PER_BYTE + i] = value < FieldType.values().length ? (byte) value : Grid.WALL;
+			}
+		}
+	}
+
+	/** The width of the level. */
+	private final int width;
+	/** The height of the level. */
+	private final int height;
+	/** The row-major index of the start, or -1 for a random one. */
+	private final int start;
+	/** The row-major index of the goal, or -1 for a random one. */
+	private final int goal;
+	/** The row-major indices of the enemies, empty for random ones. */
+	private final int[] spawns;
+	/** The number of bytes per row of cells. */
+	private final int rowBytes;
+	/** The mapped file. */
+	private final ByteBuffer file;
+	/** The position of the first row of cells in {@link #file}. */
+	private final int cellsOffset;
+
+	/**
+	 * Opens a level file and reads its header and spawn table.
+	 * @param path the level file
+	 * @throws IOException if the file cannot be read or is not a valid level,
+	 * e.g. if the start, the goal or a spawn is on a wall
+	 */
+	public LevelReader(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (file.remaining() < LevelWriter.HEADER_SIZE || file.getInt() != LevelWriter.MAGIC) {
+			throw new IOException("Not a level file: " + path);
+		}
+		byte version = file.get();
+		if (version != LevelWriter.VERSION || file.get() != LevelWriter.CELL_BITS) {
+			throw new IOException("Unsupported level version " + version + ": " + path);
+		}
+		file.getShort(); // Reserved
+		width = file.getInt();
+		height = file.getInt();
+		start = file.getInt();
+		goal = file.getInt();
+		int spawnCount = file.getInt();
+		rowBytes = (width + LevelWriter.CELLS_PER_BYTE - 1) / LevelWriter.CELLS_PER_BYTE;
+		long cells = (long) width * height;
+		long expected = LevelWriter.HEADER_SIZE + 4L * spawnCount + (long) rowBytes * height;
+		if (width <= 0 || height <= 0 || cells > Integer.MAX_VALUE || spawnCount < 0 || file.capacity() < expected
+				|| start < -1 || start >= cells || goal < -1 || goal >= cells) {
+			throw new IOException("Corrupt level file: " + path);
+		}
+		spawns = new int[spawnCount];
+		for (int i = 0; i < spawnCount; i++) {
+			spawns[i] = file.getInt();
+			if (spawns[i] < 0 || spawns[i] >= cells) {
+				throw new IOException("Corrupt level file: " + path);
+			}
+		}
+		cellsOffset = file.position();
+		if (start >= 0 && cellAt(start) == Grid.WALL || goal >= 0 && cellAt(goal) == Grid.WALL) {
+			throw new IOException("Start or goal on a wall: " + path);
+		}
+		for (int spawn : spawns) {
+			if (cellAt(spawn) == Grid.WALL) {
+				throw new IOException("Enemy spawn on a wall: " + path);
+			}
+		}
+	}
+
+	/**
+	 * Creates a world playing this level. Fields the level leaves open (start,
+	 * goal, enemies) are picked at random from the seed, like in the built-in
+	 * game; a random goal keeps its distance to the start of the level.
+	 * @param isHard true if the game should be in hard mode, false otherwise
+	 * @param seed the seed of the game
+	 * @return the new world
+	 */
+	public World createWorld(boolean isHard, long seed) {
+		return new World(width, height, isHard, this, seed, start, goal, spawns);
+	}
+
+	/**
+	 * Decodes the cells of the level into the grid.
+	 * @param grid the grid to fill, must have the size of the level
+	 * @param seed ignored, a level always looks the same
+	 * @throws IllegalArgumentException if the grid has a different size
+	 */
+	@Override
+	public void generate(Grid grid, long seed) {
+		if (grid.getWidth() != width || grid.getHeight() != height) {
+			throw new IllegalArgumentException("The level is " + width + "x" + height + ", not "
+					+ grid.getWidth() + "x" + grid.getHeight());
+		}
+		ByteBuffer cells = file.duplicate();
+		cells.position(cellsOffset);
+		byte[] packed = new byte[rowBytes];
+		byte[] row = new byte[rowBytes * LevelWriter.CELLS_PER_BYTE];
+		for (int y = 0; y < height; y++) {
+			cells.get(packed);
+			for (int i = 0, x = 0; i < rowBytes; i++, x += LevelWriter.CELLS_PER_BYTE) {
+				int from = (packed[i] & 0xFF) * LevelWriter.CELLS_PER_BYTE;
+				row[x] = DECODE[from];
+				row[x + 1] = DECODE[from + 1];
+				row[x + 2] = DECODE[from + 2];
+				row[x + 3] = DECODE[from + 3];
+			}
+			grid.setRow(y, row);
+		}
+	}
+
+	/**
+	 * Decodes one tile of the level. Like in {@link #generate(Grid, long)},
+	 * every packed byte of a tile row is read once and decoded into its fields;
+	 * only the first and last byte of a row may hold fields outside the tile.
+	 * @param x0 the x position of the tile's top left field
+	 * @param y0 the y position of the tile's top left field
+	 * @param size the width and height of the tile
+	 * @param cells receives the field type ordinals in row-major order
+	 */
+	@Override
+	public void loadTile(int x0, int y0, int size, byte[] cells) {
+		Arrays.fill(cells, 0, size * size, Grid.WALL);
+		int columns = Math.min(size, width - x0);
+		int rows = Math.min(size, height - y0);
+		for (int dy = 0; dy < rows; dy++) {
+			int rowStart = cellsOffset + (y0 + dy) * rowBytes;
+			int to = dy * size;
+			for (int dx = 0, x = x0; dx < columns;) {
+				int from = (file.get(rowStart + x / LevelWriter.CELLS_PER_BYTE) & 0xFF) * LevelWriter.CELLS_PER_BYTE;
+				for (int i = x % LevelWriter.CELLS_PER_BYTE; i < LevelWriter.CELLS_PER_BYTE && dx < columns; i++, dx++, x++) {
+					cells[to + dx] = DECODE[from + i];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Decodes a single field of the level.
+	 * @param index the row-major index of the field
+	 * @return the field type ordinal
+	 */
+	private byte cellAt(int index) {
+		int x = index % width;
+		int packed = file.get(cellsOffset + index / width * rowBytes + x / LevelWriter.CELLS_PER_BYTE) & 0xFF;
+		return DECODE[packed * LevelWriter.CELLS_PER_BYTE + x % LevelWriter.CELLS_PER_BYTE];
+	}
+
+	/**
+	 * Returns the width of the level.
+	 * @return the width
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the level.
+	 * @return the height
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the start of the level.
+	 * @return the row-major index of the start, or -1 if it is picked at random
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * Returns the goal of the level.
+	 * @return the row-major index of the goal, or -1 if it is picked at random
+	 */
+	public int getGoal() {
+		return goal;
+	}
+
+	/**
+	 * Returns the number of enemy spawns of the level.
+	 * @return the number of spawns, 0 if the enemies are placed at random
+	 */
+	public int getSpawnCount() {
+		return spawns.length;
+	}
+}
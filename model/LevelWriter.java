@@ -0,0 +1,132 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a level file that can be opened with {@link LevelReader}.
+ * <p>
+ * A level file starts with a header of {@link #HEADER_SIZE} bytes: the magic
+ * number, the version, the number of bits per cell, the width and height,
+ * the start field, the goal field and the number of enemy spawns. The spawn
+ * table follows, one {@code int} per enemy, and then the cells, row by row.
+ * Every cell takes {@link #CELL_BITS} bits holding the ordinal of its
+ * {@link FieldType}, four cells per byte with the leftmost cell in the lowest
+ * bits, and every row starts at a new byte. All fields are given as row-major
+ * indices; -1 for the start or the goal means it is picked at random.
+ *
+ * @see LevelReader
+ */
+public class LevelWriter {
+	/** The first four bytes of every level file ("LBLV"). */
+	static final int MAGIC = 0x4C424C56;
+	/** The version of the file format. */
+	static final byte VERSION = 1;
+	/** The number of bits per cell. */
+	static final int CELL_BITS = 2;
+	/** The number of cells per byte. */
+	static final int CELLS_PER_BYTE = 8 / CELL_BITS;
+	/** The size of the header in bytes. */
+	static final int HEADER_SIZE = 28;
+
+	/**
+	 * Not used, all methods are static.
+	 */
+	private LevelWriter() {
+	}
+
+	/**
+	 * Writes the classic maze as a level file. Start, goal and enemies are left
+	 * to chance, like in the built-in game.
+	 * @param path the file to write, replaced if it exists
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void exportClassic(Path path) throws IOException {
+		Grid grid = new Grid(ClassicMazeGenerator.WIDTH, ClassicMazeGenerator.HEIGHT);
+		new ClassicMazeGenerator().generate(grid, 0);
+		write(path, grid, -1, -1, new int[0]);
+	}
+
+	/**
+	 * Writes the current state of a world as a level file: its fields, its
+	 * start and goal, and the enemies as spawns.
+	 * @param path the file to write, replaced if it exists
+	 * @param world the world to save
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(Path path, World world) throws IOException {
+		Grid grid = world.getGrid();
+		EnemyPool pool = world.getEnemyPool();
+		int[] spawns = new int[pool.size()];
+		for (int i = 0; i < spawns.length; i++) {
+			spawns[i] = grid.index(pool.getX(i), pool.getY(i));
+		}
+		write(path, grid, grid.index(world.getStartX(), world.getStartY()),
+				grid.index(world.getGoalX(), world.getGoalY()), spawns);
+	}
+
+	/**
+	 * Writes a level file.
+	 * @param path the file to write, replaced if it exists
+	 * @param grid the fields of the level
+	 * @param start the row-major index of the start, or -1 for a random one
+	 * @param goal the row-major index of the goal, or -1 for a random one
+	 * @param spawns the row-major indices of the enemies, empty for random ones
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(Path path, Grid grid, int start, int goal, int[] spawns) throws IOException {
+		int width = grid.getWidth();
+		int height = grid.getHeight();
+		int rowBytes = (width + CELLS_PER_BYTE - 1) / CELLS_PER_BYTE;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(8192, rowBytes));
+			buffer.putInt(MAGIC);
+			buffer.put(VERSION);
+			buffer.put((byte) CELL_BITS);
+			buffer.putShort((short) 0); // Reserved
+			buffer.putInt(width);
+			buffer.putInt(height);
+			buffer.putInt(start);
+			buffer.putInt(goal);
+			buffer.putInt(spawns.length);
+			for (int spawn : spawns) {
+				flushIfFull(channel, buffer, Integer.BYTES);
+				buffer.putInt(spawn);
+			}
+			byte[] row = new byte[width];
+			for (int y = 0; y < height; y++) {
+				flushIfFull(channel, buffer, rowBytes);
+				grid.copyRow(y, row);
+				for (int x = 0; x < width; x += CELLS_PER_BYTE) {
+					int packed = 0;
+					for (int i = 0; i < CELLS_PER_BYTE && x + i < width; i++) {
+						packed |= (row[x + i] & 0b11) << (i * CELL_BITS);
+					}
+					buffer.put((byte) packed);
+				}
+			}
+			flushIfFull(channel, buffer, buffer.capacity());
+		}
+	}
+
+	/**
+	 * Writes the buffer to the channel if it cannot take the given number of bytes.
+	 * @param channel the file
+	 * @param buffer the collected bytes
+	 * @param needed the number of bytes about to be put
+	 * @throws IOException if writing fails
+	 */
+	private static void flushIfFull(FileChannel channel, ByteBuffer buffer, int needed) throws IOException {
+		if (buffer.remaining() < needed) {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package model;
+
+/**
+ * Creates the wall layout of a {@link Grid}.
+ * <p>
+ * Implementations overwrite every cell of the grid with {@link FieldType#WALL}
+ * or {@link FieldType#DOT} (or {@link FieldType#EMPTY}). The same seed must
+ * always produce the same maze for the same grid size.
+ */
+public interface MazeGenerator {
+
+	/**
+	 * Fills the given grid with a maze.
+	 * @param grid the grid to fill
+	 * @param seed the seed for all random decisions
+	 */
+	void generate(Grid grid, long seed);
+
+}
@@ -0,0 +1,150 @@
+package model;
+
+/**
+ * The neighbours of every field of a {@link Grid}, including the links that
+ * wrap around the edges of the board.
+ * <p>
+ * For every field one byte is stored: the lower four bits tell in which
+ * directions the neighbour is not a wall, the upper four bits tell in which
+ * directions the step leaves the board and comes back on the other side. The
+ * index of a neighbour is the field's index plus one of two precomputed
+ * offsets, so moving needs neither modulo nor bounds checks, and enemies can
+ * use the tunnels at the edges just like the player.
+ * The directions are numbered {@link #LEFT}, {@link #RIGHT}, {@link #DOWN}
+ * and {@link #UP}; {@link #indexOf(Direction)} converts a {@link Direction}.
+ */
+public class NeighborTable {
+	/** Number of the direction to the left. */
+	public static final int LEFT = 0;
+	/** Number of the direction to the right. */
+	public static final int RIGHT = 1;
+	/** Number of the direction downwards. */
+	public static final int DOWN = 2;
+	/** Number of the direction upwards. */
+	public static final int UP = 3;
+	/** Mask of the bits telling which neighbours are open. */
+	public static final int OPEN_MASK = 0xF;
+
+	/** The number of every {@link Direction}, by ordinal, -1 for {@link Direction#NONE}. */
+	private static final int[] DIRECTION_INDEX = new int[Direction.values().length];
+
+	static {
+		DIRECTION_INDEX[Direction.NONE.ordinal()] = -1;
+		DIRECTION_INDEX[Direction.LEFT.ordinal()] = LEFT;
+		DIRECTION_INDEX[Direction.RIGHT.ordinal()] = RIGHT;
+		DIRECTION_INDEX[Direction.DOWN.ordinal()] = DOWN;
+		DIRECTION_INDEX[Direction.UP.ordinal()] = UP;
+	}
+
+	/** The grid whose neighbours are stored. */
+	private final Grid grid;
+	/** The open bits (low nibble) and wrap bits (high nibble) of every field. */
+	private final byte[] links;
+	/** The index offset to the neighbour in every direction, inside the board. */
+	private final int[] offsets;
+	/** The index offset to the neighbour in every direction, across the edge. */
+	private final int[] wrapOffsets;
+	/** The wall version of the grid the table was built for. */
+	private int builtVersion = -1;
+
+	/**
+	 * Creates the neighbour table of the given grid and builds it.
+	 * @param grid the grid
+	 */
+	public NeighborTable(Grid grid) {
+		this.grid = grid;
+		int width = grid.getWidth();
+		int height = grid.getHeight();
+		this.links = new byte[grid.size()];
+		this.offsets = new int[] {-1, 1, width, -width};
+		this.wrapOffsets = new int[] {width - 1, -(width - 1), -(height - 1) * width, (height - 1) * width};
+		build();
+	}
+
+	/**
+	 * Returns the number used by this table for a direction.
+	 * @param direction the direction
+	 * @return {@link #LEFT}, {@link #RIGHT}, {@link #DOWN}, {@link #UP}, or -1 for {@link Direction#NONE}
+	 */
+	public static int indexOf(Direction direction) {
+		return DIRECTION_INDEX[direction.ordinal()];
+	}
+
+	/**
+	 * Returns the grid of this table.
+	 * @return the grid
+	 */
+	public Grid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * Rebuilds the table if the walls of the grid changed since the last build.
+	 */
+	public void update() {
+		if (builtVersion != grid.getWallModCount()) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * Rebuilds the table, in time linear in the board size.
+	 */
+	public void rebuild() {
+		build();
+	}
+
+	/**
+	 * Fills the table from the grid. Also called by the constructor, which
+	 * must not call the overridable {@link #rebuild()}.
+	 */
+	private void build() {
+		int width = grid.getWidth();
+		int height = grid.getHeight();
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int cell = y * width + x;
+				int wrap = (x == 0 ? 1 << LEFT : 0) | (x == width - 1 ? 1 << RIGHT : 0)
+						| (y == height - 1 ? 1 << DOWN : 0) | (y == 0 ? 1 << UP : 0);
+				int open = 0;
+				for (int dir = 0; dir < 4; dir++) {
+					int neighbor = cell + ((wrap >> dir & 1) != 0 ? wrapOffsets[dir] : offsets[dir]);
+					if (grid.getByte(neighbor) != Grid.WALL) {
+						open |= 1 << dir;
+					}
+				}
+				links[cell] = (byte) (wrap << 4 | open);
+			}
+		}
+		builtVersion = grid.getWallModCount();
+	}
+
+	/**
+	 * Returns the neighbour of a field, whether or not it is a wall.
+	 * @param cell the row-major index of the field
+	 * @param dir the direction, {@link #LEFT}, {@link #RIGHT}, {@link #DOWN} or {@link #UP}
+	 * @return the row-major index of the neighbour
+	 */
+	public int neighbor(int cell, int dir) {
+		return cell + ((links[cell] >> 4 + dir & 1) != 0 ? wrapOffsets[dir] : offsets[dir]);
+	}
+
+	/**
+	 * Returns in which directions the neighbours of a field are not walls.
+	 * @param cell the row-major index of the field
+	 * @return bit {@code dir} is set if the neighbour in direction {@code dir} is open
+	 */
+	public int openDirections(int cell) {
+		return links[cell] & OPEN_MASK;
+	}
+
+	/**
+	 * Checks whether the neighbour of a field in a direction is not a wall.
+	 * @param cell the row-major index of the field
+	 * @param dir the direction
+	 * @return true if the step is possible
+	 */
+	public boolean isOpen(int cell, int dir) {
+		return (links[cell] >> dir & 1) != 0;
+	}
+}
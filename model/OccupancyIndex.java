@@ -0,0 +1,119 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Counts the enemies standing on every field of a world.
+ * <p>
+ * The index is kept up to date by the {@link EnemyPool} of the world whenever
+ * an enemy moves, so asking whether a field is occupied costs a single array
+ * lookup instead of a scan over all enemies. Enemies may stand outside the
+ * board like in the plain {@link Enemy}; they are not counted and every field
+ * outside the board is unoccupied.
+ */
+public class OccupancyIndex {
+	/** The width of the indexed board. */
+	private final int width;
+	/** The height of the indexed board. */
+	private final int height;
+	/** The number of enemies on every field, in row-major order. */
+	private final int[] counts;
+
+	/**
+	 * Creates an empty index for a board of the given size.
+	 * @param width the width of the board
+	 * @param height the height of the board
+	 */
+	public OccupancyIndex(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.counts = new int[width * height];
+	}
+
+	/**
+	 * Returns the number of enemies on the field at (x, y).
+	 * @param x the x position
+	 * @param y the y position
+	 * @return the number of enemies
+	 */
+	public int count(int x, int y) {
+		int index = indexOf(x, y);
+		return index < 0 ? 0 : counts[index];
+	}
+
+	/**
+	 * Checks if at least one enemy stands on the field at (x, y).
+	 * @param x the x position
+	 * @param y the y position
+	 * @return true if the field is occupied
+	 */
+	public boolean isOccupied(int x, int y) {
+		int index = indexOf(x, y);
+		return index >= 0 && counts[index] != 0;
+	}
+
+	/**
+	 * Checks if at least one enemy stands on a field.
+	 * @param index the row-major index of the field
+	 * @return true if the field is occupied
+	 */
+	public boolean isOccupied(int index) {
+		return counts[index] != 0;
+	}
+
+	/**
+	 * Adds an enemy at (x, y).
+	 * @param x the x position
+	 * @param y the y position
+	 */
+	void add(int x, int y) {
+		int index = indexOf(x, y);
+		if (index >= 0) {
+			counts[index]++;
+		}
+	}
+
+	/**
+	 * Removes an enemy from (x, y).
+	 * @param x the x position
+	 * @param y the y position
+	 */
+	void remove(int x, int y) {
+		int index = indexOf(x, y);
+		if (index >= 0) {
+			counts[index]--;
+		}
+	}
+
+	/**
+	 * Moves an enemy from one field to another.
+	 * @param fromX the old x position
+	 * @param fromY the old y position
+	 * @param toX the new x position
+	 * @param toY the new y position
+	 */
+	void move(int fromX, int fromY, int toX, int toY) {
+		remove(fromX, fromY);
+		add(toX, toY);
+	}
+
+	/**
+	 * Returns the row-major index of the field at (x, y).
+	 * @param x the x position
+	 * @param y the y position
+	 * @return the index, or -1 if (x, y) is outside the board
+	 */
+	private int indexOf(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return -1;
+		}
+		return y * width + x;
+	}
+
+	/**
+	 * Removes all enemies from the index.
+	 */
+	void clear() {
+		Arrays.fill(counts, 0);
+	}
+}
@@ -0,0 +1,82 @@
+package model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a perfect maze (exactly one path between any two fields) with the
+ * recursive backtracker algorithm.
+ * <p>
+ * Passages lie on the odd coordinates, the fields in between are walls unless
+ * they connect two passages. The recursion is replaced by an explicit
+ * {@code int[]} stack, so even huge boards do not overflow the call stack.
+ * Whether a passage has been visited is read from the grid itself (it is no
+ * longer a wall), so the stack is the only extra memory. It starts small and
+ * doubles whenever the current path gets longer, so it only takes as much
+ * memory as the longest path needs. Runs in linear time.
+ */
+public class RecursiveBacktrackerGenerator implements MazeGenerator {
+	/** The initial capacity of the stack. */
+	private static final int INITIAL_STACK = 1024;
+
+	/**
+	 * Fills the grid with a maze.
+	 * @param grid the grid to fill
+	 * @param seed the seed for all random decisions
+	 */
+	@Override
+	public void generate(Grid grid, long seed) {
+		grid.fill(FieldType.WALL);
+		// Passages are at odd coordinates, (cellsX x cellsY) of them
+		int cellsX = (grid.getWidth() - 1) / 2;
+		int cellsY = (grid.getHeight() - 1) / 2;
+		if (cellsX <= 0 || cellsY <= 0) {
+			return; // Board too small for a single passage
+		}
+		SplittableRandom random = new SplittableRandom(seed);
+		// Fits into an int, the grid holds four times as many fields
+		int cells = cellsX * cellsY;
+		int[] stack = new int[Math.min(cells, INITIAL_STACK)];
+		int[] candidates = new int[4];
+		int top = 0;
+		int first = random.nextInt(cells);
+		grid.set(2 * (first % cellsX) + 1, 2 * (first / cellsX) + 1, FieldType.DOT);
+		stack[top++] = first;
+		while (top > 0) {
+			int cell = stack[top - 1];
+			int cx = cell % cellsX;
+			int cy = cell / cellsX;
+			// Collect all neighbouring passages that have not been visited yet
+			int count = 0;
+			if (cx > 0 && isUnvisited(grid, cx - 1, cy)) candidates[count++] = cell - 1;
+			if (cx < cellsX - 1 && isUnvisited(grid, cx + 1, cy)) candidates[count++] = cell + 1;
+			if (cy > 0 && isUnvisited(grid, cx, cy - 1)) candidates[count++] = cell - cellsX;
+			if (cy < cellsY - 1 && isUnvisited(grid, cx, cy + 1)) candidates[count++] = cell + cellsX;
+			if (count == 0) {
+				top--; // Dead end, backtrack
+				continue;
+			}
+			int next = candidates[random.nextInt(count)];
+			int nx = next % cellsX;
+			int ny = next / cellsX;
+			// Carve the wall between both passages and the new passage itself
+			grid.set(cx + nx + 1, cy + ny + 1, FieldType.DOT);
+			grid.set(2 * nx + 1, 2 * ny + 1, FieldType.DOT);
+			if (top == stack.length) {
+				stack = Arrays.copyOf(stack, (int) Math.min(cells, 2L * top));
+			}
+			stack[top++] = next;
+		}
+	}
+
+	/**
+	 * Checks if the passage at the given passage coordinates has not been carved yet.
+	 * @param grid the grid
+	 * @param cx the passage's x coordinate
+	 * @param cy the passage's y coordinate
+	 * @return true if the passage is still a wall
+	 */
+	private static boolean isUnvisited(Grid grid, int cx, int cy) {
+		return grid.isWall(2 * cx + 1, 2 * cy + 1);
+	}
+}
@@ -0,0 +1,157 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a replay file written by {@link ReplayWriter}.
+ * <p>
+ * The file is mapped into memory and decoded one tick at a time, so a replay
+ * can either drive a {@link World} headless at full speed with
+ * {@link #play(World)}, or feed the game loop tick by tick with
+ * {@link #next()}.
+ */
+public class ReplayReader {
+	/** All directions, indexed by their ordinal. */
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/** The seed of the recorded game. */
+	private final long seed;
+	/** True if the recorded game was played in hard mode. */
+	private final boolean hard;
+	/** The width of the board. */
+	private final int width;
+	/** The height of the board. */
+	private final int height;
+	/** The number of enemies. */
+	private final int enemyCount;
+	/** The run-length encoded directions following the header. */
+	private final ByteBuffer runs;
+	/** The direction of the current run. */
+	private Direction runDirection;
+	/** The number of ticks left in the current run. */
+	private int runRemaining;
+	/** The number of ticks read so far. */
+	private long ticks;
+
+	/**
+	 * Opens a replay file and reads its header.
+	 * @param path the replay file
+	 * @throws IOException if the file cannot be read or is not a replay
+	 */
+	public ReplayReader(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			runs = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (runs.remaining() < ReplayWriter.HEADER_SIZE || runs.getInt() != ReplayWriter.MAGIC) {
+			throw new IOException("Not a replay file: " + path);
+		}
+		byte version = runs.get();
+		if (version != ReplayWriter.VERSION) {
+			throw new IOException("Unsupported replay version " + version + ": " + path);
+		}
+		hard = (runs.get() & ReplayWriter.FLAG_HARD) != 0;
+		width = runs.getInt();
+		height = runs.getInt();
+		enemyCount = runs.getInt();
+		seed = runs.getLong();
+	}
+
+	/**
+	 * Creates the world of the recorded game in its initial state.
+	 * @return a new world equal to the recorded one before its first tick
+	 */
+	public World createWorld() {
+		World world = new World(width, height, hard, World.defaultGenerator(width, height), seed);
+		if (world.getEnemies().size() != enemyCount) {
+			world.setEnemies(hard, enemyCount);
+		}
+		return world;
+	}
+
+	/**
+	 * Checks if there are ticks left.
+	 * @return true if {@link #next()} can be called
+	 */
+	public boolean hasNext() {
+		return runRemaining > 0 || runs.hasRemaining();
+	}
+
+	/**
+	 * Returns the direction of the next tick.
+	 * @return the recorded direction
+	 * @throws IllegalStateException if the replay is corrupt
+	 * @throws java.nio.BufferUnderflowException if there are no ticks left
+	 */
+	public Direction next() {
+		if (runRemaining == 0) {
+			int run = runs.get() & 0xFF;
+			int direction = run >>> ReplayWriter.RUN_BITS;
+			if (direction >= DIRECTIONS.length) {
+				throw new IllegalStateException("Corrupt replay at byte " + (runs.position() - 1));
+			}
+			runDirection = DIRECTIONS[direction];
+			runRemaining = (run & (ReplayWriter.MAX_RUN - 1)) + 1;
+		}
+		runRemaining--;
+		ticks++;
+		return runDirection;
+	}
+
+	/**
+	 * Advances the world through all remaining ticks as fast as possible, or
+	 * until the game is over.
+	 * @param world the world created by {@link #createWorld()}
+	 * @return the outcome of the last tick, see {@link Simulation}
+	 */
+	public int play(World world) {
+		int outcome = Simulation.RUNNING;
+		while (outcome == Simulation.RUNNING && hasNext()) {
+			outcome = world.tick(next());
+		}
+		return outcome;
+	}
+
+	/**
+	 * Returns the number of ticks read so far.
+	 * @return the number of ticks
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Returns the seed of the recorded game.
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Returns whether the recorded game was played in hard mode.
+	 * @return true in hard mode
+	 */
+	public boolean isHard() {
+		return hard;
+	}
+
+	/**
+	 * Returns the width of the board.
+	 * @return the width
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the board.
+	 * @return the height
+	 */
+	public int getHeight() {
+		return height;
+	}
+}
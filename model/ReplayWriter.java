@@ -0,0 +1,134 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records a game as a compact replay file.
+ * <p>
+ * Because a {@link World} is fully determined by its seed and the inputs, a
+ * replay only stores the header (seed, difficulty, board size, enemy count)
+ * and the direction of every tick. The directions are run-length encoded:
+ * every byte holds a direction in its upper 3 bits and the length of the run
+ * minus one in its lower 5 bits, so a held key costs one byte per 32 ticks.
+ * The bytes are collected in a buffer and written to a {@link FileChannel}
+ * whenever the buffer is full.
+ *
+ * @see ReplayReader
+ */
+public class ReplayWriter implements Closeable {
+	/** The first four bytes of every replay file ("LBRP"). */
+	static final int MAGIC = 0x4C425250;
+	/** The version of the file format, raised whenever the header changes or the enemies behave differently. */
+	static final byte VERSION = 3;
+	/** The size of the header in bytes. */
+	static final int HEADER_SIZE = 26;
+	/** Flag in the header: the game was played in hard mode. */
+	static final byte FLAG_HARD = 1;
+	/** The number of bits holding the run length in a run byte. */
+	static final int RUN_BITS = 5;
+	/** The longest run a single byte can hold. */
+	static final int MAX_RUN = 1 << RUN_BITS;
+
+	/** The file the replay is written to. */
+	private final FileChannel channel;
+	/** Collects the bytes before they are written to the channel. */
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(8192);
+	/** The direction of the current run. */
+	private Direction runDirection;
+	/** The number of ticks in the current run, 0 if there is none. */
+	private int runLength;
+	/** The number of recorded ticks. */
+	private long ticks;
+
+	/**
+	 * Creates a replay file for a new game and writes its header. The world
+	 * must not have been advanced yet.
+	 * @param path the file to write, replaced if it exists
+	 * @param world the world to record
+	 * @throws IOException if the file cannot be written
+	 */
+	public ReplayWriter(Path path, World world) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		buffer.putInt(MAGIC);
+		buffer.put(VERSION);
+		buffer.put(world.getSimulation().isHard() ? FLAG_HARD : 0);
+		buffer.putInt(world.getWidth());
+		buffer.putInt(world.getHeight());
+		buffer.putInt(world.getEnemies().size());
+		buffer.putLong(world.getSeed());
+	}
+
+	/**
+	 * Records the direction of one tick.
+	 * @param direction the direction passed to {@link World#tick(Direction)}
+	 * @throws IOException if writing fails
+	 */
+	public void record(Direction direction) throws IOException {
+		if (direction == runDirection && runLength < MAX_RUN) {
+			runLength++;
+		} else {
+			writeRun();
+			runDirection = direction;
+			runLength = 1;
+		}
+		ticks++;
+	}
+
+	/**
+	 * Returns the number of recorded ticks.
+	 * @return the number of ticks
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Writes the pending run and closes the file.
+	 * @throws IOException if writing fails
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!channel.isOpen()) {
+			return;
+		}
+		try {
+			writeRun();
+			runLength = 0;
+			flushBuffer();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Appends the current run to the buffer.
+	 * @throws IOException if the buffer had to be written and writing failed
+	 */
+	private void writeRun() throws IOException {
+		if (runLength == 0) {
+			return;
+		}
+		if (!buffer.hasRemaining()) {
+			flushBuffer();
+		}
+		buffer.put((byte) (runDirection.ordinal() << RUN_BITS | (runLength - 1)));
+	}
+
+	/**
+	 * Writes the buffer to the channel and empties it.
+	 * @throws IOException if writing fails
+	 */
+	private void flushBuffer() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
@@ -0,0 +1,37 @@
+package model;
+
+/**
+ * The orange enemy: chases the player like the red one while it is far away,
+ * but turns back to its corner as soon as it gets close. Retreats to the
+ * bottom left corner when scattering.
+ */
+public class ShyStrategy implements GhostStrategy {
+	/** Distance to the player (in steps) below which the enemy turns away. */
+	private static final int SHY_DISTANCE = 8;
+
+	/**
+	 * Targets the player when far away and the corner when close.
+	 * @param planner the planner moving the enemy
+	 * @param slot the enemy's slot
+	 * @return the player's field or the bottom left field
+	 */
+	@Override
+	public int chaseTarget(GhostPlanner planner, int slot) {
+		if (planner.getDistanceToPlayer(slot) <= SHY_DISTANCE) {
+			return scatterTarget(planner, slot);
+		}
+		return planner.cell(planner.getPlayerX(), planner.getPlayerY());
+	}
+
+	/**
+	 * Targets the bottom left corner.
+	 * @param planner the planner moving the enemy
+	 * @param slot the enemy's slot
+	 * @return the bottom left field
+	 */
+	@Override
+	public int scatterTarget(GhostPlanner planner, int slot) {
+		return planner.cell(0, planner.getHeight() - 1);
+	}
+
+}
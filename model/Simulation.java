@@ -0,0 +1,247 @@
+package model;
+
+import java.util.SplittableRandom;
+
+import metrics.Metrics;
+
+/**
+ * The game rules of a {@link World}, without any views or windows.
+ * <p>
+ * One call to {@link #step(Direction)} advances the game by one tick: the
+ * player moves, the enemies move, and the resulting game state is returned as
+ * one of {@link #RUNNING}, {@link #WON} or {@link #LOST}. The simulation never
+ * notifies views, prints to the console or touches AWT, and a tick does not
+ * allocate any objects. This makes it usable on a headless machine, e.g. to
+ * simulate many games in a row.
+ */
+public class Simulation {
+	/** Outcome of a tick after which the game goes on. */
+	public static final int RUNNING = 0;
+	/** Outcome of a tick in which the player reached the goal. */
+	public static final int WON = 1;
+	/** Outcome of a tick in which an enemy caught the player. */
+	public static final int LOST = 2;
+	/** Points scored for every dot the player eats. */
+	public static final int DOT_POINTS = 10;
+
+	/** The world whose state is advanced. */
+	private final World world;
+	/** Moves the enemies in hard mode, each by the strategy of its type. Created on first use. */
+	private GhostPlanner planner;
+	/** Random numbers for the enemies in easy mode, shared with the world. */
+	private final SplittableRandom random;
+	/** True if the enemies chase the player, false if they move randomly. */
+	private boolean hard;
+
+	/**
+	 * Creates a new simulation for the given world.
+	 * @param world the world to simulate
+	 * @param hard true if the game should be in hard mode, false otherwise
+	 */
+	public Simulation(World world, boolean hard) {
+		this.world = world;
+		this.random = world.getRandom();
+		this.hard = hard;
+	}
+
+	/**
+	 * Returns whether the enemies chase the player.
+	 * @return true in hard mode, false in easy mode
+	 */
+	public boolean isHard() {
+		return hard;
+	}
+
+	/**
+	 * Sets the difficulty used by the following ticks.
+	 * @param hard true for hard mode, false for easy mode
+	 */
+	public void setHard(boolean hard) {
+		this.hard = hard;
+	}
+
+	/**
+	 * Advances the game by one tick. If the player cannot move in the given
+	 * direction (because of a wall) nothing happens.
+	 * @param direction where the player wants to move
+	 * @return {@link #RUNNING}, {@link #WON} or {@link #LOST}
+	 */
+	public int step(Direction direction) {
+		long start = Metrics.start();
+		boolean moved = tryMovePlayer(direction);
+		Metrics.stop(Metrics.PLAYER_MOVE, start);
+		if (!moved) {
+			return RUNNING;
+		}
+		int outcome = outcome();
+		if (outcome != RUNNING) {
+			return outcome;
+		}
+		moveEnemies();
+		return outcome();
+	}
+
+	/**
+	 * Advances the game by one tick of continuous movement. The player turns into
+	 * the wanted direction if possible and otherwise keeps moving in its current
+	 * direction until it hits a wall. With {@link Direction#NONE} the player
+	 * stands still. The enemies move in every tick.
+	 * @param direction where the player wants to move
+	 * @return {@link #RUNNING}, {@link #WON} or {@link #LOST}
+	 */
+	public int advance(Direction direction) {
+		long start = Metrics.start();
+		if (direction != Direction.NONE && !tryMovePlayer(direction)) {
+			tryMovePlayer(world.getPlayerDirection());
+		}
+		Metrics.stop(Metrics.PLAYER_MOVE, start);
+		int outcome = outcome();
+		if (outcome != RUNNING) {
+			return outcome;
+		}
+		moveEnemies();
+		return outcome();
+	}
+
+	/**
+	 * Moves the player one field into the given direction, eating the dots on
+	 * the field it leaves and on the field it enters.
+	 * @param direction where the player wants to move
+	 * @return true if the player moved, false if a wall is in the way
+	 */
+	private boolean tryMovePlayer(Direction direction) {
+		Grid grid = world.getGrid();
+		NeighborTable neighbors = world.getNeighbors();
+		int cell = grid.index(world.getPlayerX(), world.getPlayerY());
+		int dir = NeighborTable.indexOf(direction);
+		// Only move if the new position is not a wall, the table wraps around at the edges
+		if (dir >= 0 && !neighbors.isOpen(cell, dir)) {
+			return false;
+		}
+		int target = dir >= 0 ? neighbors.neighbor(cell, dir) : cell;
+		eatDot(grid, cell);
+		eatDot(grid, target);
+		int newY = target / grid.getWidth();
+		world.placePlayer(target - newY * grid.getWidth(), newY, direction);
+		return true;
+	}
+
+	/**
+	 * Turns a dot into an empty field and scores its points.
+	 * @param grid the grid of the world
+	 * @param index the row-major index of the field
+	 */
+	private void eatDot(Grid grid, int index) {
+		if (grid.getByte(index) == Grid.DOT) {
+			grid.setByte(index, Grid.EMPTY);
+			world.addScore(DOT_POINTS);
+		}
+	}
+
+	/**
+	 * Computes the current game state without changing anything.
+	 * @return {@link #WON} if the player is on the goal (or all dots are eaten
+	 * and {@link World#isClearDotsToWin()} is set), {@link #LOST} if an enemy is
+	 * on the player, {@link #RUNNING} otherwise
+	 */
+	public int outcome() {
+		long start = Metrics.start();
+		int outcome = checkOutcome();
+		Metrics.stop(Metrics.GAME_STATE, start);
+		return outcome;
+	}
+
+	/**
+	 * Computes the current game state, see {@link #outcome()}.
+	 * @return {@link #WON}, {@link #LOST} or {@link #RUNNING}
+	 */
+	private int checkOutcome() {
+		int playerX = world.getPlayerX();
+		int playerY = world.getPlayerY();
+		// Check if the goal has been reached
+		if (playerX == world.getGoalX() && playerY == world.getGoalY()) {
+			return WON;
+		}
+		// Check if the board has been cleared, the grid counts the dots
+		if (world.isClearDotsToWin() && world.getGrid().getDotCount() == 0) {
+			return WON;
+		}
+		// Check if an enemy is on the player
+		if (world.isEnemyAt(playerX, playerY)) {
+			return LOST;
+		}
+		return RUNNING;
+	}
+
+	/**
+	 * Finds the enemy that caught the player.
+	 * @return the slot in the {@link EnemyPool} of an enemy standing on the
+	 * player, or -1 if there is none
+	 */
+	public int capturingEnemy() {
+		int playerX = world.getPlayerX();
+		int playerY = world.getPlayerY();
+		if (!world.isEnemyAt(playerX, playerY)) {
+			return -1;
+		}
+		EnemyPool pool = world.getEnemyPool();
+		for (int i = 0; i < pool.size(); i++) {
+			if (pool.getX(i) == playerX && pool.getY(i) == playerY) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Moves all enemies once according to the current difficulty.
+	 */
+	public void moveEnemies() {
+		long start = Metrics.start();
+		EnemyPool pool = world.getEnemyPool();
+		if (!hard) {
+			// direction of enemies random
+			randomSteps(pool);
+		} else {
+			// enemies chasing the player, each in its own way
+			if (planner == null) {
+				planner = new GhostPlanner(world);
+			}
+			planner.moveEnemies();
+		}
+		Metrics.stop(Metrics.ENEMY_AI, start);
+	}
+
+	/**
+	 * Moves every enemy into a random direction that is not blocked by a wall.
+	 * <p>
+	 * The open directions of every enemy come straight from the
+	 * {@link NeighborTable} as a bit mask, including the links through the
+	 * tunnels at the edges. Picking uniformly among them gives the same
+	 * distribution as trying the directions in a shuffled order, but needs a
+	 * single random number per enemy.
+	 * @param pool the enemies to move
+	 */
+	private void randomSteps(EnemyPool pool) {
+		NeighborTable neighbors = world.getNeighbors();
+		int width = world.getWidth();
+		int count = pool.size();
+		int[] xs = pool.getXArray();
+		int[] ys = pool.getYArray();
+		for (int i = 0; i < count; i++) {
+			int cell = ys[i] * width + xs[i];
+			// Bit d is set if the enemy may move into direction d (left, right, down, up)
+			int open = neighbors.openDirections(cell);
+			if (open == 0) {
+				continue; // Walled in
+			}
+			// Drop a random number of the lowest set bits, then take the lowest one left
+			for (int skip = random.nextInt(Integer.bitCount(open)); skip > 0; skip--) {
+				open &= open - 1;
+			}
+			int target = neighbors.neighbor(cell, Integer.numberOfTrailingZeros(open));
+			int y = target / width;
+			pool.setPosition(i, target - y * width, y);
+		}
+	}
+}
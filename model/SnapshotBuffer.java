@@ -0,0 +1,71 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands {@link WorldSnapshot}s from the simulation to the renderers without
+ * locks.
+ * <p>
+ * The simulation thread is the only writer. It fills a snapshot that is
+ * neither the latest one nor held by a renderer, then makes it the latest one.
+ * Any number of renderers can {@link #acquire()} the latest snapshot and read
+ * it while the simulation already fills the next one. With one renderer three
+ * snapshots are enough (triple buffering); if every snapshot is held, the
+ * writer adds another one instead of waiting, so the simulation never blocks
+ * on painting.
+ */
+public class SnapshotBuffer {
+	/** All snapshots, only used by the writer. */
+	private WorldSnapshot[] snapshots = {new WorldSnapshot(), new WorldSnapshot(), new WorldSnapshot()};
+	/** The most recently published snapshot, or null before the first one. */
+	private final AtomicReference<WorldSnapshot> latest = new AtomicReference<>();
+	/** The number of the last published snapshot. */
+	private long sequence;
+
+	/**
+	 * Copies the current state of the world into a free snapshot and publishes
+	 * it. Must only be called by the thread advancing the world.
+	 * @param world the world to publish
+	 */
+	public void publish(World world) {
+		WorldSnapshot previous = latest.get();
+		WorldSnapshot target = claim(previous);
+		target.capture(world, previous, ++sequence);
+		target.finishWrite();
+		latest.set(target);
+	}
+
+	/**
+	 * Returns the latest snapshot and holds it until
+	 * {@link WorldSnapshot#release()} is called.
+	 * @return the latest snapshot, or null if nothing has been published yet
+	 */
+	public WorldSnapshot acquire() {
+		while (true) {
+			WorldSnapshot snapshot = latest.get();
+			if (snapshot == null || snapshot.tryRetain()) {
+				return snapshot;
+			}
+			// Being written, so a newer snapshot has been published in the meantime
+		}
+	}
+
+	/**
+	 * Finds a snapshot the writer may fill, adding one if all are in use.
+	 * @param current the latest snapshot, which is never overwritten
+	 * @return a claimed snapshot
+	 */
+	private WorldSnapshot claim(WorldSnapshot current) {
+		for (WorldSnapshot snapshot : snapshots) {
+			if (snapshot != current && snapshot.tryClaim()) {
+				return snapshot;
+			}
+		}
+		WorldSnapshot added = new WorldSnapshot();
+		added.tryClaim();
+		snapshots = Arrays.copyOf(snapshots, snapshots.length + 1);
+		snapshots[snapshots.length - 1] = added;
+		return added;
+	}
+}
@@ -0,0 +1,22 @@
+package model;
+
+/**
+ * Provides the fields of a {@link ChunkedGrid} one square tile at a time,
+ * either by generating them or by loading them from a file.
+ * <p>
+ * The same tile must always get the same fields, because a tile that was
+ * dropped from memory is simply asked for again.
+ */
+public interface TileSource {
+
+	/**
+	 * Fills a tile with its fields.
+	 * @param x0 the x position of the tile's top left field
+	 * @param y0 the y position of the tile's top left field
+	 * @param size the width and height of the tile
+	 * @param cells receives the field type ordinals of the tile in row-major
+	 *              order; fields outside the board must be walls
+	 */
+	void loadTile(int x0, int y0, int size, byte[] cells);
+
+}
@@ -1,11 +1,15 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import view.StartMenu;
 import view.View;
 
 import controller.Labyrinth;
+import metrics.Metrics;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.awt.Frame;
 
 /**
@@ -14,6 +18,14 @@ import java.awt.Frame;
  * anything about graphics.
  */
 public class World {
+	/** The minimum number of steps between the start and the goal, if the board allows it. */
+	private static final int MIN_GOAL_DISTANCE = 50;
+	/** How many random fields are tried as the goal before one at exactly the minimum distance is taken. */
+	private static final int GOAL_TRIES = 32;
+	/** The color names of the enemies, reused in order. */
+	private static final String[] ENEMY_NAMES = {"red", "cyan", "orange", "pink"};
+	/** No enemy spawns, the enemies are placed at random. */
+	private static final int[] RANDOM_SPAWNS = new int[0];
 	/** The world's width. */
 	private final int width;
 	/** The world's height. */
@@ -31,32 +43,134 @@ public class World {
 	/** The goal's y position. */
 	private int goalY;
 	/** The field layout of the world. */
-	private final FieldType[][] fields;
+	private final Grid grid;
+	/** Lazily built {@code [x][y]} copy of the grid, see {@link #getFields()}. */
+	private FieldType[][] fields;
+	/** The grid modification count {@link #fields} was built at. */
+	private int fieldsModCount = -1;
 	/** Set of views registered to be notified of world updates. */
 	private final ArrayList<View> views = new ArrayList<>();
-	/** List of enemies in the world. */
-	private final ArrayList<Enemy> enemies = new ArrayList<>();
+	/** The changes collected since the views were last notified. */
+	private final ChangeSet changes = new ChangeSet();
+	/** The number of currently open changes, see {@link #beginChange()}. */
+	private int changeDepth;
+	/** Read-only list of enemies in the world, the views onto the slots of {@link #enemyPool}. */
+	private final List<Enemy> enemies;
+	/** Number of enemies on every field, kept up to date by the enemy pool. */
+	private final OccupancyIndex occupancy;
+	/** The positions and types of all enemies. */
+	private final EnemyPool enemyPool;
+	/** All fields that are not walls, see {@link #placementCells()}. */
+	private int[] placementCells;
+	/** The wall version of the grid {@link #placementCells} was collected at. */
+	private int placementVersion = -1;
+	/** The root of the largest component, found along with {@link #placementCells}. */
+	private int largestComponent;
+	/** The placement fields of the component {@link #componentRoot}. */
+	private int[] componentCells;
+	/** The component {@link #componentCells} belongs to, or {@link Connectivity#NONE}. */
+	private int componentRoot = Connectivity.NONE;
 	/** The current direction of the player. */
 	private Direction playerDirection = Direction.RIGHT; // Standardrichtung
+	/** Creates the maze layout. */
+	private final MazeGenerator generator;
+	/** The seed of the game; the same seed and inputs give the same game. */
+	private final long seed;
+	/** The seed of the maze layout, drawn from {@link #random}. */
+	private final long mazeSeed;
+	/** The source of all random decisions: placement and enemy movement. */
+	private final SplittableRandom random;
+	/** The game rules that advance this world. */
+	private final Simulation simulation;
+	/** The neighbours of every field, shared by the player, the enemies and the searches. */
+	private final NeighborTable neighbors;
+	/** Which fields can reach each other, used for placement. */
+	private final Connectivity connectivity;
+	/** The points scored by eating dots. */
+	private int score;
+	/** True if eating all dots wins the game, in addition to reaching the goal. */
+	private boolean clearDotsToWin;
+	/** Hands snapshots of this world to renderers on other threads, null until requested. */
+	private SnapshotBuffer snapshots;
 
 
 	/**
-	 * Creates a new world with the given size.
+	 * Creates a new world with the given size. Boards of the classic size get
+	 * the classic maze, all other boards get a random maze.
 	 * @param width the width of the world
 	 * @param height the height of the world
 	 * @param isHard true if the game should be in hard mode, false otherwise
 	 */
 	public World(int width, int height, boolean isHard) {
+		this(width, height, isHard, defaultGenerator(width, height), System.nanoTime());
+	}
+
+	/**
+	 * Creates a new world with the given size and maze. All random decisions
+	 * (maze layout, start, goal, enemies and their movement) are derived from
+	 * the seed, so the same seed and the same inputs give the same game.
+	 * @param width the width of the world
+	 * @param height the height of the world
+	 * @param isHard true if the game should be in hard mode, false otherwise
+	 * @param generator creates the maze layout
+	 * @param seed the seed of the game
+	 */
+	public World(int width, int height, boolean isHard, MazeGenerator generator, long seed) {
+		this(width, height, isHard, generator, seed, -1, -1, RANDOM_SPAWNS);
+	}
+
+	/**
+	 * Creates a new world with the given size and maze, and with start, goal
+	 * and enemies where they are given, e.g. by a level. Only what is not
+	 * given is placed at random, like in
+	 * {@link #World(int, int, boolean, MazeGenerator, long)}.
+	 * @param width the width of the world
+	 * @param height the height of the world
+	 * @param isHard true if the game should be in hard mode, false otherwise
+	 * @param generator creates the maze layout
+	 * @param seed the seed of the game
+	 * @param start the row-major index of the start, or -1 for a random one
+	 * @param goal the row-major index of the goal, or -1 for a random one
+	 * @param spawns the row-major indices of the enemies, empty for random ones
+	 */
+	World(int width, int height, boolean isHard, MazeGenerator generator, long seed, int start, int goal, int[] spawns) {
 		// Normally, we would check the arguments for proper values
 		this.width = width;
 		this.height = height;
-		this.fields = new FieldType[width][height];
+		this.generator = generator;
+		this.seed = seed;
+		this.random = new SplittableRandom(seed);
+		this.mazeSeed = random.nextLong();
+		this.grid = new Grid(width, height);
+		this.occupancy = new OccupancyIndex(width, height);
+		this.enemyPool = new EnemyPool(4, occupancy);
+		this.enemies = Collections.unmodifiableList(enemyPool.getEnemies());
 		build_maze();
+		this.neighbors = new NeighborTable(grid);
+		this.connectivity = new Connectivity(neighbors);
+		this.simulation = new Simulation(this, isHard);
 
-		randomStartGoal();
+		placeStartGoal(start, goal);
 		playerX= startX;
 		playerY= startY;
-		setEnemies(isHard);
+		if (spawns.length > 0) {
+			setEnemies(spawns);
+		} else {
+			setEnemies(isHard);
+		}
+	}
+
+	/**
+	 * Returns the maze generator used for a board of the given size.
+	 * @param width the width of the board
+	 * @param height the height of the board
+	 * @return the classic maze if it fits exactly, a recursive backtracker otherwise
+	 */
+	public static MazeGenerator defaultGenerator(int width, int height) {
+		if (width == ClassicMazeGenerator.WIDTH && height == ClassicMazeGenerator.HEIGHT) {
+			return new ClassicMazeGenerator();
+		}
+		return new RecursiveBacktrackerGenerator();
 	}
 
 	///////////////////////////////////////////////////////////////////////////
@@ -93,7 +207,12 @@ public class World {
 	 */
 	public void setPlayerX(int playerX) {
 		this.playerX = playerX;
-		updateViews();
+		beginChange();
+		try {
+			changes.add(ChangeSet.PLAYER);
+		} finally {
+			endChange();
+		}
 	}
 
 	/**
@@ -106,9 +225,34 @@ public class World {
 
 	/**
 	 * Returns the field layout of the world.
+	 * @return the grid holding all fields
+	 */
+	public Grid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * Returns the fields of the world through the {@link Board} interface.
+	 * Prefer it over {@link #getFields()}, which copies the whole board. The
+	 * board of a world is always its {@link Grid}.
+	 * @return the board of the world
+	 */
+	public Board getBoard() {
+		return grid;
+	}
+
+	/**
+	 * Returns the field layout of the world as a {@code [x][y]} array.
+	 * The array is built from the {@link Grid} on first use and rebuilt whenever
+	 * the grid changed since. It is a read-only copy, writes to it are not
+	 * reflected in the world.
 	 * @return the field array
 	 */
 	public FieldType[][] getFields(){
+		if (fields == null || fieldsModCount != grid.getModCount()) {
+			fields = grid.toArray();
+			fieldsModCount = grid.getModCount();
+		}
 		return fields;
 	}
 
@@ -118,7 +262,12 @@ public class World {
 	 */
 	public void setPlayerY(int playerY) {
 		this.playerY = playerY;
-		updateViews();
+		beginChange();
+		try {
+			changes.add(ChangeSet.PLAYER);
+		} finally {
+			endChange();
+		}
 	}
 
 	/**
@@ -143,6 +292,12 @@ public class World {
 	 */
 	public void setStartX(int startX) {
 		this.startX = startX;
+		beginChange();
+		try {
+			changes.add(ChangeSet.START_GOAL);
+		} finally {
+			endChange();
+		}
 	}
 
 	/**
@@ -151,6 +306,12 @@ public class World {
 	 */
 	public void setStartY(int startY) {
 		this.startY = startY;
+		beginChange();
+		try {
+			changes.add(ChangeSet.START_GOAL);
+		} finally {
+			endChange();
+		}
 	}
 
 	/**
@@ -175,6 +336,12 @@ public class World {
 	 */
 	public void setGoalX(int goalX) {
 		this.goalX = goalX;
+		beginChange();
+		try {
+			changes.add(ChangeSet.START_GOAL);
+		} finally {
+			endChange();
+		}
 	}
 
 	/**
@@ -183,16 +350,68 @@ public class World {
 	 */
 	public void setGoalY(int goalY) {
 		this.goalY = goalY;
+		beginChange();
+		try {
+			changes.add(ChangeSet.START_GOAL);
+		} finally {
+			endChange();
+		}
 	}
 
 	/**
-	 * Returns the list of enemies in the world.
-	 * @return the list of enemies
+	 * Returns the list of enemies in the world. The list is read-only, enemies
+	 * are added through {@link #addEnemy(Enemy)} and removed through
+	 * {@link #clearEnemies()} so the world sees them on the board.
+	 * The enemies are views onto {@link #getEnemyPool()}.
+	 * @return the read-only list of enemies
 	 */
-	public ArrayList<Enemy> getEnemies() {
+	public List<Enemy> getEnemies() {
         return enemies;
     }
 
+	/**
+	 * Adds an enemy to the world. An enemy of another world is taken out of
+	 * that world.
+	 * @param enemy the enemy to add
+	 */
+	public void addEnemy(Enemy enemy) {
+		enemy.moveTo(enemyPool);
+	}
+
+	/**
+	 * Removes all enemies from the world. Enemies that are still referenced
+	 * elsewhere keep their last position.
+	 */
+	public void clearEnemies() {
+		enemyPool.clear();
+	}
+
+	/**
+	 * Returns the pool storing the positions and types of all enemies.
+	 * @return the enemy pool
+	 */
+	public EnemyPool getEnemyPool() {
+		return enemyPool;
+	}
+
+	/**
+	 * Checks if an enemy stands on the field at (x, y). Runs in constant time.
+	 * @param x the x position
+	 * @param y the y position
+	 * @return true if at least one enemy is on the field
+	 */
+	public boolean isEnemyAt(int x, int y) {
+		return occupancy.isOccupied(x, y);
+	}
+
+	/**
+	 * Returns the index counting the enemies on every field.
+	 * @return the occupancy index
+	 */
+	public OccupancyIndex getOccupancy() {
+		return occupancy;
+	}
+
 	/**
 	 * Returns the current direction of the player.
 	 * @return the player's direction
@@ -206,77 +425,173 @@ public class World {
 
 	/**
 	 * Randomly sets the start and goal positions on the board.
+	 * <p>
+	 * The start is a random field of the largest connected area. The goal is a
+	 * random field of that area at least {@link #MIN_GOAL_DISTANCE} steps away,
+	 * or at least half as far as the farthest field on boards that are too
+	 * small for that. The search from the start stops at that distance and the
+	 * fields of the area are only collected once per wall layout. The arrays
+	 * of the search are allocated per placement and not kept by the world.
 	 */
 	public void randomStartGoal() {
-		Random rand = new Random();
+		placeStartGoal(-1, -1);
+	}
 
-		int startX, startY, goalX, goalY;
+	/**
+	 * Sets the start and goal positions, picking those that are not given at
+	 * random like {@link #randomStartGoal()}. A random goal keeps its distance
+	 * to the start, whether that is given or random.
+	 * @param start the row-major index of the start, or -1 for a random one
+	 * @param goal the row-major index of the goal, or -1 for a random one
+	 */
+	private void placeStartGoal(int start, int goal) {
+		int[] cells;
+		if (start < 0) {
+			cells = componentCells(largestComponent());
+			start = cells[random.nextInt(cells.length)];
+		} else {
+			placementCells(); // Brings the connectivity up to date
+			int component = connectivity.componentOf(start);
+			cells = component != Connectivity.NONE ? componentCells(component) : null;
+		}
+		if (goal >= 0 || cells == null) {
+			// A given goal, or a start on a wall that no goal can be searched from
+			setStartGoal(start, goal >= 0 ? goal : start);
+			return;
+		}
 
-		// Find a random start position on a DOT field
-		do {
-			startX = rand.nextInt(width);
-			startY = rand.nextInt(height);
-		} while (fields[startX][startY] != FieldType.DOT);
+		// Distances from the start up to the goal distance, following the same rules as the player.
+		// Only needed here, so the world does not keep two more arrays of the board size
+		DistanceField placementField = new DistanceField(neighbors);
+		int reached = placementField.rebuild(start, MIN_GOAL_DISTANCE);
+		int farthest = placementField.get(placementField.getReachedCell(reached - 1));
+		int required;
+		if (farthest >= MIN_GOAL_DISTANCE) {
+			// The fields of the area the search did not reach are even farther away
+			required = MIN_GOAL_DISTANCE;
+			for (int tries = 0; tries < GOAL_TRIES && goal < 0; tries++) {
+				int cell = cells[random.nextInt(cells.length)];
+				if (placementField.get(cell) >= required) {
+					goal = cell;
+				}
+			}
+		} else {
+			// Small boards cannot keep the full distance, half the farthest field is enough there
+			required = (farthest + 1) / 2;
+		}
+		if (goal < 0) {
+			// The fields far enough away are the last ones the search reached
+			int first = reached;
+			while (first > 0 && placementField.get(placementField.getReachedCell(first - 1)) >= required) {
+				first--;
+			}
+			goal = placementField.getReachedCell(first + random.nextInt(reached - first));
+		}
 
-		// Find a random goal position on a DOT field, far enough (at least 50 blocks) from the start
-		do {
-			goalX = rand.nextInt(width);
-			goalY = rand.nextInt(height);
-		} while (fields[goalX][goalY] != FieldType.DOT  && Math.abs(goalX-startX)+Math.abs(goalY-startY)<50);
+		setStartGoal(start, goal);
+	}
 
-		setStartX(startX);
-		setStartY(startY);
-		setGoalX(goalX);
-		setGoalY(goalY);
+	/**
+	 * Moves the start and goal, notifying the views once for both.
+	 * @param start the row-major index of the start
+	 * @param goal the row-major index of the goal
+	 */
+	private void setStartGoal(int start, int goal) {
+		beginChange();
+		try {
+			setStartX(start % width);
+			setStartY(start / width);
+			setGoalX(goal % width);
+			setGoalY(goal / width);
+		} finally {
+			endChange();
+		}
+	}
+
+	/**
+	 * Returns the fields that start, goal and enemies may be placed on: all
+	 * fields that are not walls. The list is collected once per wall layout,
+	 * like the {@link Connectivity}.
+	 * @return the row-major indices of the fields in ascending order
+	 * @throws IllegalStateException if every field is a wall
+	 */
+	private int[] placementCells() {
+		connectivity.update();
+		if (placementVersion != grid.getWallModCount()) {
+			int size = grid.size();
+			int count = 0;
+			for (int i = 0; i < size; i++) {
+				if (grid.getByte(i) != Grid.WALL) {
+					count++;
+				}
+			}
+			if (count == 0) {
+				throw new IllegalStateException("The board has no free field");
+			}
+			int[] cells = new int[count];
+			int largest = -1;
+			for (int i = 0, n = 0; n < count; i++) {
+				if (grid.getByte(i) != Grid.WALL) {
+					cells[n++] = i;
+					if (largest < 0 || connectivity.componentSize(i) > connectivity.componentSize(largest)) {
+						largest = i;
+					}
+				}
+			}
+			placementCells = cells;
+			largestComponent = connectivity.componentOf(largest);
+			componentRoot = Connectivity.NONE;
+			placementVersion = grid.getWallModCount();
+		}
+		return placementCells;
+	}
+
+	/**
+	 * Returns the largest connected area, where the player starts so that it
+	 * can go somewhere and is not stuck in a closed pocket.
+	 * @return the component, see {@link Connectivity#componentOf(int)}
+	 */
+	private int largestComponent() {
+		placementCells();
+		return largestComponent;
+	}
+
+	/**
+	 * Returns the placement fields of a component. The list of the last
+	 * component asked for is kept until the walls change.
+	 * @param component the component, see {@link Connectivity#componentOf(int)}
+	 * @return the fields of the component in ascending order
+	 */
+	private int[] componentCells(int component) {
+		int[] cells = placementCells();
+		if (componentRoot != component) {
+			int count = 0;
+			for (int cell : cells) {
+				if (connectivity.componentOf(cell) == component) {
+					count++;
+				}
+			}
+			if (count == cells.length) {
+				componentCells = cells;
+			} else {
+				componentCells = new int[count];
+				int n = 0;
+				for (int cell : cells) {
+					if (connectivity.componentOf(cell) == component) {
+						componentCells[n++] = cell;
+					}
+				}
+			}
+			componentRoot = component;
+		}
+		return componentCells;
 	}
 
 	/**
 	 * Builds the maze layout and initializes the field array.
 	 */
 	public void build_maze() {
-		int[][] maze = {
-        {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1},
-        {1,0,0,0,0,0,0,0,0,0,0,0,0,1,1,0,0,0,0,0,0,0,0,0,0,0,0,1},
-        {1,0,1,1,1,1,0,1,1,1,1,1,0,1,1,0,1,1,1,1,1,0,1,1,1,1,0,1},
-		{1,0,1,1,1,1,0,1,1,1,1,1,0,1,1,0,1,1,1,1,1,0,1,1,1,1,0,1},
-		{1,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,1},
-		{1,0,1,1,1,1,0,1,1,0,1,1,1,1,1,1,1,1,0,1,1,0,1,1,1,1,0,1},
-		{1,0,1,1,1,1,0,1,1,0,1,1,1,1,1,1,1,1,0,1,1,0,1,1,1,1,0,1},
-		{1,0,0,0,0,0,0,1,1,0,0,0,0,1,1,0,0,0,0,1,1,0,0,0,0,0,0,1},
-		{1,1,1,1,1,1,0,1,1,1,1,1,0,1,1,0,1,1,1,1,1,0,1,1,1,1,1,1},
-		{1,1,1,1,1,1,0,1,1,1,1,1,0,1,1,0,1,1,1,1,1,0,1,1,1,1,1,1},
-		{2,2,2,2,1,1,0,1,1,0,0,0,0,0,0,0,0,0,0,1,1,0,1,1,2,2,2,2},
-		{1,1,1,1,1,1,0,1,1,0,1,1,1,1,1,1,1,1,0,1,1,0,1,1,1,1,1,1},
-		{1,1,1,1,1,1,0,1,1,0,1,1,1,1,1,1,1,1,0,1,1,0,1,1,1,1,1,1},
-		{0,0,0,0,0,0,0,0,0,0,1,1,2,2,2,2,1,1,0,0,0,0,0,0,0,0,0,0},
-		{1,1,1,1,1,1,0,1,1,0,1,1,1,1,1,1,1,1,0,1,1,0,1,1,1,1,1,1},
-		{1,1,1,1,1,1,0,1,1,0,1,1,1,1,1,1,1,1,0,1,1,0,1,1,1,1,1,1},
-		{2,2,2,2,1,1,0,1,1,0,0,0,0,0,0,0,0,0,0,1,1,0,1,1,2,2,2,2},
-		{1,1,1,1,1,1,0,1,1,0,1,1,1,1,1,1,1,1,0,1,1,0,1,1,1,1,1,1},
-		{1,1,1,1,1,1,0,1,1,0,1,1,1,1,1,1,1,1,0,1,1,0,1,1,1,1,1,1},
-		{1,0,0,0,0,0,0,0,0,0,0,0,0,1,1,0,0,0,0,0,0,0,0,0,0,0,0,1},
-		{1,0,1,1,1,1,0,1,1,1,1,1,0,1,1,0,1,1,1,1,1,0,1,1,1,1,0,1},
-		{1,0,1,1,1,1,0,1,1,1,1,1,0,1,1,0,1,1,1,1,1,0,1,1,1,1,0,1},
-		{1,0,0,0,1,1,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,1,1,0,0,0,1},
-		{1,1,1,0,1,1,0,1,1,0,1,1,1,1,1,1,1,1,0,1,1,0,1,1,0,1,1,1},
-		{1,1,1,0,1,1,0,1,1,0,1,1,1,1,1,1,1,1,0,1,1,0,1,1,0,1,1,1},
-		{1,0,0,0,0,0,0,1,1,0,0,0,0,1,1,0,0,0,0,1,1,0,0,0,0,0,0,1},
-		{1,0,1,1,1,1,1,1,1,1,1,1,0,1,1,0,1,1,1,1,1,1,1,1,1,1,0,1},
-		{1,0,1,1,1,1,1,1,1,1,1,1,0,1,1,0,1,1,1,1,1,1,1,1,1,1,0,1},
-		{1,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,1},
-		{1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1},
-    };
-
-    	// Fill the fields array based on the maze definition
-    	for (int y = 0; y < maze.length; y++) {
-        	for (int x = 0; x < maze[0].length; x++) {
-				// 1 = WALL, 0 = DOT, 2 = EMPTY
-            	fields[x][y] = (maze[y][x] == 1) ? FieldType.WALL : FieldType.DOT;
-				if (maze[y][x] == 2){
-					fields[x][y] = FieldType.EMPTY;
-				}
-    		}
-		} 
+		generator.generate(grid, mazeSeed);
 	}
 
 	/**
@@ -284,22 +599,54 @@ public class World {
 	 * @param isHard true if the game should be in hard mode, false otherwise
 	 */
 	public void setEnemies(boolean isHard){
-    	enemies.clear();
-		int count_enemies = 4;
-    	int enemiesX;
-    	int enemiesY;
-    	Random rand_enemies = new Random();
-    	// List of color names for the enemies
-    	String[] names = {"red", "cyan", "orange", "pink"};
-    	for (int i = 0; i < count_enemies && i < names.length; i++) {
-    	    do {
-    	        enemiesX = rand_enemies.nextInt(width - 2) + 1;
-    	        enemiesY = rand_enemies.nextInt(height - 2) + 1;
-    	    } while (fields[enemiesX][enemiesY] != FieldType.DOT || (enemiesX == playerX && enemiesY == playerY));
-    	    enemies.add(new Enemy(enemiesX, enemiesY, names[i]));
+		setEnemies(isHard, 4);
+	}
+
+	/**
+	 * Sets up the given number of enemies on the board. The enemy colors are
+	 * reused in order if there are more enemies than colors. Each enemy is put
+	 * on a random field that is connected to the player's field (but not on
+	 * the player), which takes constant time per enemy.
+	 * @param isHard true if the game should be in hard mode, false otherwise
+	 * @param count_enemies the number of enemies to place
+	 */
+	public void setEnemies(boolean isHard, int count_enemies){
+    	clearEnemies();
+    	// Enemies start on random fields the player can reach, but never on the player
+    	connectivity.update();
+    	int player = grid.index(playerX, playerY);
+    	int component = connectivity.componentOf(player);
+    	if (component == Connectivity.NONE) {
+    	    return; // The player stands on a wall, no field is connected
+    	}
+    	int[] cells = componentCells(component);
+    	if (cells.length == 1 && cells[0] == player) {
+    	    return; // No field left for the enemies
+    	}
+    	for (int i = 0; i < count_enemies; i++) {
+    	    int pick = random.nextInt(cells.length);
+    	    if (cells[pick] == player) {
+    	        pick = (pick + 1) % cells.length; // Take the next field instead
+    	    }
+    	    int enemiesX = cells[pick] % width;
+    	    int enemiesY = cells[pick] / width;
+    	    enemyPool.add(enemiesX, enemiesY, ENEMY_NAMES[i % ENEMY_NAMES.length]);
     	}
 	}
 
+	/**
+	 * Sets up one enemy on each of the given fields, e.g. the spawns of a
+	 * level. The enemy colors are reused in order like in
+	 * {@link #setEnemies(boolean, int)}.
+	 * @param spawns the row-major indices of the fields
+	 */
+	public void setEnemies(int[] spawns) {
+		clearEnemies();
+		for (int i = 0; i < spawns.length; i++) {
+			enemyPool.add(spawns[i] % width, spawns[i] / width, ENEMY_NAMES[i % ENEMY_NAMES.length]);
+		}
+	}
+
 
 	///////////////////////////////////////////////////////////////////////////
 	// Player Management
@@ -310,20 +657,161 @@ public class World {
 	 * @param isHard true if the game should be in hard mode, false otherwise
 	 */
 	public void movePlayer(Direction direction, boolean isHard) {
-        // Calculate new position with wrap-around at the edges
-        int newPositionX = (getPlayerX() + direction.deltaX + width) % width;
-        int newPositionY = (getPlayerY() + direction.deltaY + height) % height;
-        // Only move if the new position is not a wall
-        if (fields[newPositionX][newPositionY] != FieldType.WALL) {
-            playerDirection = direction; // Remember the direction
-            fields[getPlayerX()][getPlayerY()] = FieldType.EMPTY;
-            setPlayerX(newPositionX);
-            setPlayerY(newPositionY);
-			checkGamestate();
-            moveEnemies(isHard);
-            checkGamestate();
-        } 
-    }
+		int oldX = playerX;
+		int oldY = playerY;
+		simulation.setHard(isHard);
+		int outcome;
+		beginChange();
+		try {
+			outcome = simulation.step(direction);
+			if (playerX != oldX || playerY != oldY) {
+				changes.add(ChangeSet.ENEMIES); // Enemies only move along with the player
+			}
+		} finally {
+			endChange();
+		}
+		if (outcome != Simulation.RUNNING) {
+			restart(outcome == Simulation.WON);
+		}
+	}
+
+	/**
+	 * Advances the game by one tick of continuous movement (see
+	 * {@link Simulation#advance(Direction)}) and notifies the views once.
+	 * Unlike {@link #movePlayer(Direction, boolean)} this does not restart the
+	 * game when it is over, the caller decides what to do with the outcome.
+	 * @param direction where the player wants to move
+	 * @return {@link Simulation#RUNNING}, {@link Simulation#WON} or {@link Simulation#LOST}
+	 */
+	public int tick(Direction direction) {
+		beginChange();
+		try {
+			int outcome = simulation.advance(direction);
+			changes.add(ChangeSet.ENEMIES);
+			return outcome;
+		} finally {
+			endChange();
+		}
+	}
+
+	/**
+	 * Places the player on the given field without notifying the views. Inside
+	 * a change (see {@link #beginChange()}) the move and the field the player
+	 * left are recorded. Used by the {@link Simulation}.
+	 * @param x the new x position
+	 * @param y the new y position
+	 * @param direction the direction the player moved in
+	 */
+	void placePlayer(int x, int y, Direction direction) {
+		if (changeDepth > 0) {
+			changes.add(ChangeSet.PLAYER);
+			changes.addCell(grid.index(playerX, playerY)); // A dot may have been eaten here
+			changes.addCell(grid.index(x, y)); // and here
+		}
+		playerX = x;
+		playerY = y;
+		playerDirection = direction; // Remember the direction
+	}
+
+	/**
+	 * Returns the points scored by eating dots.
+	 * @return the score
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Adds points to the score. Used by the {@link Simulation}.
+	 * @param points the points to add
+	 */
+	void addScore(int points) {
+		score += points;
+	}
+
+	/**
+	 * Returns the number of dots left on the board. Runs in constant time.
+	 * @return the number of dots
+	 */
+	public int getRemainingDots() {
+		return grid.getDotCount();
+	}
+
+	/**
+	 * Returns whether eating all dots wins the game.
+	 * @return true if clearing the board is a second way to win
+	 */
+	public boolean isClearDotsToWin() {
+		return clearDotsToWin;
+	}
+
+	/**
+	 * Sets whether eating all dots wins the game, in addition to reaching the goal.
+	 * @param clearDotsToWin true to let a cleared board win
+	 */
+	public void setClearDotsToWin(boolean clearDotsToWin) {
+		this.clearDotsToWin = clearDotsToWin;
+	}
+
+	/**
+	 * Returns the simulation that advances this world. It can be used to run
+	 * the game without views or windows.
+	 * @return the simulation
+	 */
+	public Simulation getSimulation() {
+		return simulation;
+	}
+
+	/**
+	 * Returns the neighbours of every field, including the links that wrap
+	 * around the edges. The table is brought up to date first if the walls changed.
+	 * @return the neighbour table
+	 */
+	public NeighborTable getNeighbors() {
+		neighbors.update();
+		return neighbors;
+	}
+
+	/**
+	 * Returns which fields of the board can reach each other. The index is
+	 * brought up to date first if the walls changed.
+	 * @return the connectivity index
+	 */
+	public Connectivity getConnectivity() {
+		connectivity.update();
+		return connectivity;
+	}
+
+	/**
+	 * Returns the buffer through which renderers on other threads get
+	 * consistent snapshots of this world. The first call publishes the current
+	 * state, from then on a snapshot is published at the end of every change.
+	 * Must be called by the thread advancing the world.
+	 * @return the snapshot buffer
+	 */
+	public SnapshotBuffer getSnapshots() {
+		if (snapshots == null) {
+			snapshots = new SnapshotBuffer();
+			snapshots.publish(this);
+		}
+		return snapshots;
+	}
+
+	/**
+	 * Returns the seed of the game.
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Returns the source of all random decisions of this world.
+	 * @return the random number generator
+	 */
+	SplittableRandom getRandom() {
+		return random;
+	}
 
 
 	/**
@@ -338,137 +826,36 @@ public class World {
 		for (Frame frame : Frame.getFrames()) {
             frame.dispose();
 		}
-		Labyrinth.getStartMenu().setGameState(gameState);
-		Labyrinth.getStartMenu().setVisible(true);
+		// There is no start menu if the world runs without the game window
+		StartMenu startMenu = Labyrinth.getStartMenu();
+		if (startMenu != null) {
+			startMenu.setGameState(gameState);
+			startMenu.setVisible(true);
+		}
 	}
 
 	/**
 	 * Checks the current game state (win/lose) and restarts if necessary.
 	 */
 	public void checkGamestate() {
-		Boolean gameState = null;
-    // Check if the goal has been reached
-    if (playerX == goalX && playerY == goalY) {
-		gameState = true;
-		restart(gameState);
-		return;
-    }
-    // Check if an enemy is on the player
-    for (Enemy enemy : enemies) {
-        if (enemy.getX() == playerX && enemy.getY() == playerY) {
-			gameState = false;
-            restart(gameState);
-            return;
-        }
-    }
-}
-
-
+		int outcome = simulation.outcome();
+		if (outcome != Simulation.RUNNING) {
+			restart(outcome == Simulation.WON);
+		}
+	}
 
 	/**
 	 * Moves all enemies according to the current difficulty.
 	 * @param isHard true if the game should be in hard mode, false otherwise
 	 */
 	public void moveEnemies(boolean isHard) {
-		// direction of enemies random
-		if (isHard == false) {
-			Random rand_enemies = new Random();
-			for (Enemy enemy : enemies) {
-				int [] dx = {-1,1,0,0};
-				int [] dy = {0,0,1,-1};
-				ArrayList<Integer> directions_dx_dy = new ArrayList<>();
-
-				// Add all possible directions (0: left, 1: right, 2: down, 3: up)
-				for (int i=0; i<4; i++){
-					directions_dx_dy.add(i);
-				}
-				java.util.Collections.shuffle(directions_dx_dy, rand_enemies);
-				for ( int dir: directions_dx_dy){
-					int newenemyX = enemy.getX() + dx[dir];
-					int newenemyY = enemy.getY() + dy[dir];
-
-					// Only move if the new position is not a wall
-					if (fields[newenemyX][newenemyY] != FieldType.WALL) {
-						enemy.setEnemyX(newenemyX);
-						enemy.setEnemyY(newenemyY);
-						break; 
-					}
-				}	
-			}
-			updateViews();
-		} else {
-			// enemies chasing the player
-			int [] dx = {-1,1,0,0};
-			int [] dy = {0,0,1,-1};
-			
-			for (Enemy enemy : enemies) {
-				ArrayList<int[]> preferred_dir_x_y  = new ArrayList<>();
-				int enemyX = enemy.getX();
-				int enemyY = enemy.getY();
-				int diffX = playerX - enemyX;
-				int diffY = playerY - enemyY;
-
-				// Prefer moving towards the player: first in the direction with the largest difference
-				if (Math.abs(diffX)>Math.abs(diffY)){
-					if (diffX>0){
-						preferred_dir_x_y.add(new int[]{1, 0}); // right
-					}else{
-						preferred_dir_x_y.add(new int[]{-1, 0}); // left
-					}
-					if (diffY>0){
-						preferred_dir_x_y.add(new int[] {0,1}); // down
-					}else{
-						preferred_dir_x_y.add(new int[] {0,-1}); // up
-					}
-				}else{
-					if (diffY>0){
-						preferred_dir_x_y.add(new int[] {0,1}); // down
-					}else{
-						preferred_dir_x_y.add(new int[] {0,-1}); // up
-					}
-					if (diffX>0){
-						preferred_dir_x_y.add(new int[]{1, 0}); // right
-					}else{
-						preferred_dir_x_y.add(new int[]{-1, 0}); // left
-					}
-				}
-				// Add remaining directions not already in the preferred list
-				for (int i = 0; i < 4; i++) {
-        			int[] dir = {dx[i], dy[i]};
-        			boolean alreadyInList = false;
-					for (int[] d : preferred_dir_x_y) {
-						if (d[0] == dir[0] && d[1] == dir[1]) {
-							alreadyInList = true;
-							break;
-						}
-					}
-					if (!alreadyInList) {
-						preferred_dir_x_y.add(dir);
-					}
-				}
-				// Try to move in preferred directions, but only if the field is not a wall and not occupied by another enemy
-				for (int[] direction: preferred_dir_x_y){
-					int newenemyX = enemyX + direction[0];
-					int newenemyY = enemyY + direction[1];
-
-            		if (fields[newenemyX][newenemyY] != FieldType.WALL  ) {
-                		boolean isFieldFree = true;
-						for (Enemy other : enemies) {
-        					if (other != enemy && other.getX() == newenemyX && other.getY() == newenemyY) {
-            					isFieldFree = false;
-            					break;
-        					}
-    					}
-
-						if (isFieldFree) {
-							enemy.setEnemyX(newenemyX);
-							enemy.setEnemyY(newenemyY);
-							break;
-						}
-                	}
-				}
-			}
-			updateViews();
+		simulation.setHard(isHard);
+		beginChange();
+		try {
+			simulation.moveEnemies();
+			changes.add(ChangeSet.ENEMIES);
+		} finally {
+			endChange();
 		}
 	}
 
@@ -488,12 +875,40 @@ public class World {
 	}
 
 	/**
-	 * Updates all views by calling their {@link View#update(World)} methods.
+	 * Starts a change. All modifications until the matching {@link #endChange()}
+	 * are collected and the views are notified only once at the end. Changes
+	 * may be nested, the views are notified when the outermost one ends.
+	 */
+	public void beginChange() {
+		changeDepth++;
+	}
+
+	/**
+	 * Ends a change started with {@link #beginChange()}. If it was the outermost
+	 * one and anything changed, a new snapshot is published (if anyone asked for
+	 * {@link #getSnapshots()}) and all views are notified with the collected changes.
+	 */
+	public void endChange() {
+		if (--changeDepth == 0) {
+			if (!changes.isEmpty()) {
+				if (snapshots != null) {
+					snapshots.publish(this);
+				}
+				updateViews();
+			}
+			changes.clear();
+		}
+	}
+
+	/**
+	 * Updates all views by calling their {@link View#update(World, ChangeSet)} methods.
 	 */
 	private void updateViews() {
+		long start = Metrics.start();
 		for (int i = 0; i < views.size(); i++) {
-			views.get(i).update(this);
+			views.get(i).update(this, changes);
 		}
+		Metrics.stop(Metrics.VIEW_DISPATCH, start);
 	}
 
 }
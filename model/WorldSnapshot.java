@@ -0,0 +1,331 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A consistent copy of everything a renderer needs from a {@link World}: the
+ * fields, start, goal, player and enemies, including the positions of the
+ * previous snapshot so sprites can be animated between the two.
+ * <p>
+ * Snapshots are filled by the simulation thread and handed to the renderers
+ * by a {@link SnapshotBuffer}. They are reused, so a renderer must get a
+ * snapshot with {@link SnapshotBuffer#acquire()}, must not change it, and must
+ * give it back with {@link #release()} when it is done.
+ */
+public class WorldSnapshot {
+	/** The number of renderers holding this snapshot, or -1 while it is being written. */
+	private final AtomicInteger references = new AtomicInteger();
+
+	/** The number of the snapshot, increasing with every publication. */
+	private long sequence;
+	/** The width of the board. */
+	private int width;
+	/** The height of the board. */
+	private int height;
+	/** The fields of the board in row-major order, as {@link Grid} constants. */
+	private byte[] cells = new byte[0];
+	/** The modification count of the grid the fields were copied at. */
+	private int cellsVersion = -1;
+	/** The wall modification count of the grid. */
+	private int wallVersion;
+	/** The player's x position. */
+	private int playerX;
+	/** The player's y position. */
+	private int playerY;
+	/** The player's x position in the previous snapshot. */
+	private int previousPlayerX;
+	/** The player's y position in the previous snapshot. */
+	private int previousPlayerY;
+	/** The direction the player looks in. */
+	private Direction playerDirection;
+	/** The x position of the start. */
+	private int startX;
+	/** The y position of the start. */
+	private int startY;
+	/** The x position of the goal. */
+	private int goalX;
+	/** The y position of the goal. */
+	private int goalY;
+	/** The number of enemies. */
+	private int enemyCount;
+	/** The x positions of the enemies. */
+	private int[] enemyX = new int[0];
+	/** The y positions of the enemies. */
+	private int[] enemyY = new int[0];
+	/** The x positions of the enemies in the previous snapshot. */
+	private int[] previousEnemyX = new int[0];
+	/** The y positions of the enemies in the previous snapshot. */
+	private int[] previousEnemyY = new int[0];
+	/** The names (types) of the enemies. */
+	private String[] enemyNames = new String[0];
+
+	/**
+	 * Copies the current state of the world into this snapshot. Called by the
+	 * {@link SnapshotBuffer} while it owns the snapshot.
+	 * @param world the world to copy
+	 * @param previous the snapshot published before, or null
+	 * @param sequence the number of this snapshot
+	 */
+	void capture(World world, WorldSnapshot previous, long sequence) {
+		this.sequence = sequence;
+		Grid grid = world.getGrid();
+		width = grid.getWidth();
+		height = grid.getHeight();
+		if (cells.length != grid.size()) {
+			cells = new byte[grid.size()];
+			cellsVersion = -1;
+		}
+		// Only the fields changed since this snapshot was last filled are copied, all of them if too many changed
+		if (cellsVersion != grid.getModCount()) {
+			if (cellsVersion == -1 || !grid.copyChangesTo(cells, cellsVersion)) {
+				grid.copyTo(cells);
+			}
+			cellsVersion = grid.getModCount();
+		}
+		wallVersion = grid.getWallModCount();
+		playerX = world.getPlayerX();
+		playerY = world.getPlayerY();
+		playerDirection = world.getPlayerDirection();
+		startX = world.getStartX();
+		startY = world.getStartY();
+		goalX = world.getGoalX();
+		goalY = world.getGoalY();
+
+		EnemyPool enemies = world.getEnemyPool();
+		enemyCount = enemies.size();
+		if (enemyX.length < enemyCount) {
+			int capacity = Math.max(enemyCount, 2 * enemyX.length);
+			enemyX = new int[capacity];
+			enemyY = new int[capacity];
+			previousEnemyX = new int[capacity];
+			previousEnemyY = new int[capacity];
+			enemyNames = new String[capacity];
+		}
+		for (int i = 0; i < enemyCount; i++) {
+			enemyX[i] = enemies.getX(i);
+			enemyY[i] = enemies.getY(i);
+			enemyNames[i] = enemies.getName(i);
+		}
+		// Without a matching previous snapshot the sprites start where they are
+		boolean continues = previous != null && previous.enemyCount == enemyCount;
+		previousPlayerX = continues ? previous.playerX : playerX;
+		previousPlayerY = continues ? previous.playerY : playerY;
+		System.arraycopy(continues ? previous.enemyX : enemyX, 0, previousEnemyX, 0, enemyCount);
+		System.arraycopy(continues ? previous.enemyY : enemyY, 0, previousEnemyY, 0, enemyCount);
+	}
+
+	/**
+	 * Takes the snapshot for writing if no renderer holds it.
+	 * @return true if the caller may write the snapshot
+	 */
+	boolean tryClaim() {
+		return references.compareAndSet(0, -1);
+	}
+
+	/**
+	 * Ends writing, after which renderers may hold the snapshot.
+	 */
+	void finishWrite() {
+		references.set(0);
+	}
+
+	/**
+	 * Adds a renderer holding the snapshot, unless it is being written.
+	 * @return true if the snapshot is now held
+	 */
+	boolean tryRetain() {
+		int count = references.get();
+		while (count >= 0) {
+			if (references.compareAndSet(count, count + 1)) {
+				return true;
+			}
+			count = references.get();
+		}
+		return false;
+	}
+
+	/**
+	 * Gives the snapshot back after rendering. It must not be used afterwards.
+	 */
+	public void release() {
+		references.decrementAndGet();
+	}
+
+	/**
+	 * Returns the number of the snapshot. Later snapshots have larger numbers.
+	 * @return the sequence number
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * Returns the width of the board.
+	 * @return the width
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the board.
+	 * @return the height
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the field at (x, y).
+	 * @param x the x position
+	 * @param y the y position
+	 * @return one of the {@link Grid} constants
+	 */
+	public byte getCell(int x, int y) {
+		return cells[y * width + x];
+	}
+
+	/**
+	 * Checks if the field at (x, y) is a wall.
+	 * @param x the x position
+	 * @param y the y position
+	 * @return true for walls
+	 */
+	public boolean isWall(int x, int y) {
+		return cells[y * width + x] == Grid.WALL;
+	}
+
+	/**
+	 * Returns the wall modification count of the grid, see
+	 * {@link Grid#getWallModCount()}.
+	 * @return the wall version
+	 */
+	public int getWallVersion() {
+		return wallVersion;
+	}
+
+	/**
+	 * Returns the player's x position.
+	 * @return the x position
+	 */
+	public int getPlayerX() {
+		return playerX;
+	}
+
+	/**
+	 * Returns the player's y position.
+	 * @return the y position
+	 */
+	public int getPlayerY() {
+		return playerY;
+	}
+
+	/**
+	 * Returns the player's x position in the previous snapshot.
+	 * @return the previous x position
+	 */
+	public int getPreviousPlayerX() {
+		return previousPlayerX;
+	}
+
+	/**
+	 * Returns the player's y position in the previous snapshot.
+	 * @return the previous y position
+	 */
+	public int getPreviousPlayerY() {
+		return previousPlayerY;
+	}
+
+	/**
+	 * Returns the direction the player looks in.
+	 * @return the direction
+	 */
+	public Direction getPlayerDirection() {
+		return playerDirection;
+	}
+
+	/**
+	 * Returns the x position of the start.
+	 * @return the x position
+	 */
+	public int getStartX() {
+		return startX;
+	}
+
+	/**
+	 * Returns the y position of the start.
+	 * @return the y position
+	 */
+	public int getStartY() {
+		return startY;
+	}
+
+	/**
+	 * Returns the x position of the goal.
+	 * @return the x position
+	 */
+	public int getGoalX() {
+		return goalX;
+	}
+
+	/**
+	 * Returns the y position of the goal.
+	 * @return the y position
+	 */
+	public int getGoalY() {
+		return goalY;
+	}
+
+	/**
+	 * Returns the number of enemies.
+	 * @return the number of enemies
+	 */
+	public int getEnemyCount() {
+		return enemyCount;
+	}
+
+	/**
+	 * Returns the x position of an enemy.
+	 * @param i the enemy, from 0 to {@link #getEnemyCount()} - 1
+	 * @return the x position
+	 */
+	public int getEnemyX(int i) {
+		return enemyX[i];
+	}
+
+	/**
+	 * Returns the y position of an enemy.
+	 * @param i the enemy, from 0 to {@link #getEnemyCount()} - 1
+	 * @return the y position
+	 */
+	public int getEnemyY(int i) {
+		return enemyY[i];
+	}
+
+	/**
+	 * Returns the x position of an enemy in the previous snapshot.
+	 * @param i the enemy, from 0 to {@link #getEnemyCount()} - 1
+	 * @return the previous x position
+	 */
+	public int getPreviousEnemyX(int i) {
+		return previousEnemyX[i];
+	}
+
+	/**
+	 * Returns the y position of an enemy in the previous snapshot.
+	 * @param i the enemy, from 0 to {@link #getEnemyCount()} - 1
+	 * @return the previous y position
+	 */
+	public int getPreviousEnemyY(int i) {
+		return previousEnemyY[i];
+	}
+
+	/**
+	 * Returns the name or type of an enemy.
+	 * @param i the enemy, from 0 to {@link #getEnemyCount()} - 1
+	 * @return the name (e.g. "red")
+	 */
+	public String getEnemyName(int i) {
+		return enemyNames[i];
+	}
+}
@@ -1,7 +1,14 @@
 package view;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.Arrays;
+
+import model.Grid;
 import model.World;
-import model.FieldType;
 
 /**
  * A view that prints the current state of the world to the console upon every
@@ -14,72 +21,189 @@ import model.FieldType;
  * [G] = Goal
  * [.] = Dot
  * [ ] = Empty
+ * <p>
+ * The whole frame is built in one reusable {@code char[]} and written with a
+ * single call. In ANSI mode only the fields that differ from the previous frame
+ * are written, each prefixed by an escape sequence moving the cursor there.
  */
 public class ConsoleView implements View {
 
+	/** Number of characters used for one field. */
+	private static final int FIELD_CHARS = 3;
+
+	/** Receives the frames, flushed once per update. */
+	private final Writer out;
+	/** True if only the differences to the previous frame should be written. */
+	private final boolean ansi;
+
+	/** The current frame: all rows, each followed by a newline, and an empty line. */
+	private char[] frame = new char[0];
+	/** The previous frame, used for the ANSI differences. */
+	private char[] previous = new char[0];
+	/** Buffer for the ANSI differences. */
+	private char[] diff = new char[0];
+	/** True once a complete frame has been written in ANSI mode. */
+	private boolean screenInitialized;
+
+	/**
+	 * Creates a console view printing complete frames to {@link System#out}.
+	 */
+	public ConsoleView() {
+		this(System.out, false);
+	}
+
+	/**
+	 * Creates a console view printing to the given stream.
+	 * @param out the stream to print to
+	 * @param ansi true to only print the changed fields using ANSI cursor
+	 *             movement, false to print every frame completely
+	 */
+	public ConsoleView(PrintStream out, boolean ansi) {
+		this.out = new BufferedWriter(new OutputStreamWriter(out), 1 << 16);
+		this.ansi = ansi;
+	}
+
 	/**
 	 * Prints the current state of the world to the console.
 	 * @param world the {@link World} whose state should be printed
 	 */
 	@Override
 	public void update(World world) {
-		var fields = world.getFields();
+		int width = world.getWidth();
+		int height = world.getHeight();
+		int rowLength = width * FIELD_CHARS + 1;
+		int length = rowLength * height + 1;
+		if (frame.length != length) {
+			frame = new char[length];
+			previous = new char[length];
+			screenInitialized = false;
+		}
 
-		for (int y = 0; y < fields[0].length; y++) {
-			for (int x = 0; x < fields.length; x++) {
-				System.out.print(getFieldSymbol(x, y, world)); // Print symbol for each field
+		Grid grid = world.getGrid();
+		int pos = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				char symbol = getFieldSymbol(x, y, world, grid);
+				frame[pos++] = '[';
+				frame[pos++] = symbol;
+				frame[pos++] = ']';
 			}
 			// A newline between every row
-			System.out.println();
+			frame[pos++] = '\n';
 		}
-
 		// A newline between every update
-		System.out.println();
+		frame[pos] = '\n';
+
+		try {
+			if (ansi && screenInitialized) {
+				writeDifferences(width, height, rowLength);
+			} else {
+				if (ansi) {
+					out.write("\033[2J\033[H"); // Clear the screen, cursor to the top left
+					screenInitialized = true;
+				}
+				out.write(frame, 0, frame.length);
+			}
+			out.flush();
+		} catch (IOException e) {
+			System.err.println("Could not print the world: " + e.getMessage());
+		}
+		// Keep the frame to compare the next one against
+		char[] swap = previous;
+		previous = frame;
+		frame = swap;
 	}
 
 	/**
-	 * Returns the symbol for the field at position (x, y) in the world.
-	 * @param x the x position
-	 * @param y the y position
-	 * @param world the {@link World}
-	 * @return the symbol as a String
+	 * Writes only the fields that differ from the previous frame, each preceded
+	 * by an ANSI escape sequence moving the cursor to it.
+	 * @param width the width of the world
+	 * @param height the height of the world
+	 * @param rowLength the number of characters per row, including the newline
+	 * @throws IOException if writing fails
 	 */
-	private String getFieldSymbol(int x, int y, World world) {
-		var fields = world.getFields();
-		if (x == world.getPlayerX() && y == world.getPlayerY()) {
-			return "[P]"; // Player position
-		} else if (isEnemyAt(world, x, y)) {
-			return "[E]"; // Enemy position
-		} else if (fields[x][y] == FieldType.WALL) {
-			return "[#]"; // Wall
-		} else if (x == world.getStartX() && y == world.getStartY()) {
-			return "[S]"; // Start position
-		} else if (x == world.getGoalX() && y == world.getGoalY()) {
-			return "[G]"; // Goal position
-		} else if (fields[x][y] == FieldType.DOT) {
-			return "[.]"; // Dot
-		} else if (fields[x][y] == FieldType.EMPTY) {
-			return "[ ]"; // Empty field
+	private void writeDifferences(int width, int height, int rowLength) throws IOException {
+		int pos = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int i = y * rowLength + x * FIELD_CHARS + 1; // The symbol between the brackets
+				if (frame[i] != previous[i]) {
+					// ESC [ row ; column H, both 1-based, then the field
+					if (diff.length < pos + 32) {
+						diff = Arrays.copyOf(diff, Math.max(256, diff.length * 2));
+					}
+					diff[pos++] = '\033';
+					diff[pos++] = '[';
+					pos = writeNumber(y + 1, pos);
+					diff[pos++] = ';';
+					pos = writeNumber(x * FIELD_CHARS + 1, pos);
+					diff[pos++] = 'H';
+					diff[pos++] = '[';
+					diff[pos++] = frame[i];
+					diff[pos++] = ']';
+				}
+			}
+		}
+		if (pos > 0) {
+			if (diff.length < pos + 32) {
+				diff = Arrays.copyOf(diff, diff.length * 2);
+			}
+			// Park the cursor below the board
+			diff[pos++] = '\033';
+			diff[pos++] = '[';
+			pos = writeNumber(height + 1, pos);
+			diff[pos++] = ';';
+			diff[pos++] = '1';
+			diff[pos++] = 'H';
+			out.write(diff, 0, pos);
 		}
-		return "[?]"; // Unknown field type
 	}
 
 	/**
-	 * Checks if an enemy is at the given position.
-	 * @param world the {@link World}
+	 * Writes a positive number into the difference buffer.
+	 * @param number the number
+	 * @param pos where to write it
+	 * @return the position after the number
+	 */
+	private int writeNumber(int number, int pos) {
+		int digits = 1;
+		for (int n = number; n >= 10; n /= 10) {
+			digits++;
+		}
+		for (int i = pos + digits - 1; i >= pos; i--) {
+			diff[i] = (char) ('0' + number % 10);
+			number /= 10;
+		}
+		return pos + digits;
+	}
+
+	/**
+	 * Returns the symbol for the field at position (x, y) in the world.
 	 * @param x the x position
 	 * @param y the y position
-	 * @return true if an enemy is at (x, y), false otherwise
+	 * @param world the {@link World}
+	 * @param grid the fields of the world
+	 * @return the symbol shown between the brackets
 	 */
-	private boolean isEnemyAt(World world, int x, int y) {
-		for (var enemy : world.getEnemies()) {
-			if (enemy.getX() == x && enemy.getY() == y) {
-				return true; // Found an enemy at (x, y)
-			}
+	private char getFieldSymbol(int x, int y, World world, Grid grid) {
+		int index = grid.index(x, y);
+		byte field = grid.getByte(index);
+		if (x == world.getPlayerX() && y == world.getPlayerY()) {
+			return 'P'; // Player position
+		} else if (world.isEnemyAt(x, y)) {
+			return 'E'; // Enemy position
+		} else if (field == Grid.WALL) {
+			return '#'; // Wall
+		} else if (x == world.getStartX() && y == world.getStartY()) {
+			return 'S'; // Start position
+		} else if (x == world.getGoalX() && y == world.getGoalY()) {
+			return 'G'; // Goal position
+		} else if (field == Grid.DOT) {
+			return '.'; // Dot
+		} else if (field == Grid.EMPTY) {
+			return ' '; // Empty field
 		}
-		return false;
+		return '?'; // Unknown field type
 	}
 
 }
-
-
@@ -1,26 +1,40 @@
 package view;
 
+import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Rectangle;
-import java.util.HashMap;
-import java.util.Map;
+import java.awt.Transparency;
+import java.util.Arrays;
+import java.util.BitSet;
 
-import javax.imageio.ImageIO;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
+import metrics.Metrics;
+
+import model.ChangeSet;
+import model.Grid;
+import model.SnapshotBuffer;
 import model.World;
+import model.WorldSnapshot;
 
 import java.awt.image.BufferedImage;
-import java.io.IOException;
 
 /**
  * A graphical view of the world.
  * <p>
  * This class is responsible for rendering the maze, player, enemies, and dots using Java2D.
  * It implements the {@link View} interface and updates its display whenever the world changes.
+ * <p>
+ * Updates arrive on the thread advancing the world and only decide which parts
+ * of the view to repaint. Painting happens on the event dispatch thread and
+ * reads nothing from the live world, only the latest {@link WorldSnapshot},
+ * so it always shows a consistent state and never waits for the simulation.
  */
 public class GraphicView extends JPanel implements View {
 
@@ -29,24 +43,74 @@ public class GraphicView extends JPanel implements View {
 	/** The total height of the view in pixels. */
 	private final int HEIGHT;
 
+	/** The color of a dot. */
+	private static final Color DOT_COLOR = new Color(255, 182, 193);
+	/** The stroke used for the outline of a wall. */
+	private static final BasicStroke WALL_STROKE = new BasicStroke(0.8f);
+	/** The font of the metrics overlay. */
+	private static final Font METRICS_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+	/** The background of the metrics overlay, translucent black. */
+	private static final Color METRICS_BACKGROUND = new Color(0, 0, 0, 180);
+	/** The area of the metrics overlay, repainted on every update while it is shown. */
+	private static final Rectangle METRICS_AREA = new Rectangle(4, 4, 520, 100);
+
 	/** The size of a single field (cell) in the maze. */
 	private Dimension fieldDimension;
-	/** The current world state to display. */
+	/** The world of the last update. Only used by the updating thread. */
 	private World world;
+	/** The snapshots of the world, painted by the event dispatch thread. */
+	private volatile SnapshotBuffer snapshots;
 
-	/** The image used to represent the player. */
-	private BufferedImage playerImage;
-	/** A map of enemy names to their images. */
-	private Map<String, BufferedImage> enemyImages = new HashMap<>();
+	/** The sprites of player and enemies, scaled to the field size. Created on the first paint. */
+	private SpriteAtlas sprites;
 
+	/** The part of the view that is being painted, reused for every paint. */
+	private final Rectangle clip = new Rectangle();
+	/** The player's x position before the last update. */
+	private int fromPlayerX;
+	/** The player's y position before the last update. */
+	private int fromPlayerY;
+	/** The player's x position at the last update. */
+	private int toPlayerX;
+	/** The player's y position at the last update. */
+	private int toPlayerY;
+	/** The enemy positions before the last update, as (x, y) pairs. */
+	private int[] fromEnemies = new int[0];
+	/** The enemy positions at the last update, as (x, y) pairs. */
+	private int[] toEnemies = new int[0];
 	/**
-	 * The rectangle representing the player's position and size on the board.
+	 * How far the sprites have moved from their old to their new field, from 0
+	 * to 1. Stays at 1 (no interpolation) unless a game loop animates the view.
 	 */
-	private final Rectangle player = new Rectangle(1, 1);
+	private volatile double interpolation = 1.0;
+
+	/** Background and walls, rendered once and reused for every paint. */
+	private BufferedImage wallLayer;
+	/** The snapshots of the world the wall layer was rendered from. */
+	private SnapshotBuffer wallLayerSource;
+	/** The wall modification count of the grid when the wall layer was rendered. */
+	private int wallLayerVersion;
+	/** The field size the wall layer was rendered with. */
+	private final Dimension wallLayerField = new Dimension();
+
+	/** Guards the dirty fields, added by the updating thread and painted by the event dispatch thread. */
+	private final Object dirtyLock = new Object();
+	/** The fields to paint, as row-major indices. */
+	private int[] dirtyFields = new int[64];
+	/** The number of entries of {@link #dirtyFields}. */
+	private int dirtyCount;
+	/** The fields listed in {@link #dirtyFields}, so none is listed twice. */
+	private final BitSet dirtyMarks = new BitSet();
+	/** The width of the board the dirty fields belong to. */
+	private int dirtyWidth;
+	/** The fields being painted, swapped with {@link #dirtyFields}. Only used by the event dispatch thread. */
+	private int[] paintingFields = new int[64];
+	/** Paints the dirty fields, posted to the event dispatch thread when the first field gets dirty. */
+	private final Runnable paintDirty = this::paintDirtyFields;
 
 	/**
 	 * Constructs a new GraphicView with the given size and field dimensions.
-	 * Loads all necessary images for the player and enemies.
+	 * The images of player and enemies are loaded when the view is first painted.
 	 *
 	 * @param width the width in pixels
 	 * @param height the height in pixels
@@ -56,23 +120,6 @@ public class GraphicView extends JPanel implements View {
 		this.WIDTH = width;
 		this.HEIGHT = height;
 		this.fieldDimension = fieldDimension;
-
-		// Load player image
-		try {
-			playerImage = ImageIO.read(getClass().getResource("/resources/pacman.png"));
-		} catch (IOException | IllegalArgumentException e) {
-			System.err.println("Could not load player image: " + e.getMessage());
-			playerImage = null;
-		}
-		// Load enemy images
-		try {
-			enemyImages.put("red", ImageIO.read(getClass().getResource("/resources/redGhost.png")));
-			enemyImages.put("pink", ImageIO.read(getClass().getResource("/resources/pinkGhost.png")));
-			enemyImages.put("cyan", ImageIO.read(getClass().getResource("/resources/cyanGhost.png")));
-			enemyImages.put("orange", ImageIO.read(getClass().getResource("/resources/orangeGhost.png")));
-		} catch (IOException | IllegalArgumentException e) {
-			System.err.println("Could not load enemy image: " + e.getMessage());
-		}
 	}
 
 	/**
@@ -82,48 +129,122 @@ public class GraphicView extends JPanel implements View {
 	 */
 	@Override
 	public void paint(Graphics g) {
+		long start = Metrics.start();
 		super.paint(g);
-		if (world == null) return;
+		SnapshotBuffer source = snapshots;
+		if (source == null) return;
+		WorldSnapshot snapshot = source.acquire();
+		if (snapshot == null) return;
+		try {
+			// Only the dirty part of the view has to be drawn again
+			clip.setBounds(0, 0, WIDTH, HEIGHT);
+			g.getClipBounds(clip);
+
+			// Draw background and walls from the cached wall layer
+			BufferedImage walls = getWallLayer(source, snapshot);
+			int x2 = clip.x + clip.width;
+			int y2 = clip.y + clip.height;
+			g.drawImage(walls, clip.x, clip.y, x2, y2, clip.x, clip.y, x2, y2, null);
 
-		// Draw background
-		g.setColor(Color.BLACK);
-		g.fillRect(0, 0, WIDTH, HEIGHT);
+			if (sprites == null || !sprites.fits(fieldDimension)) {
+				sprites = new SpriteAtlas(getGraphicsConfiguration(), fieldDimension);
+			}
+			drawFields(g, snapshot);
+			drawEnemies(g, snapshot);
+			drawPlayer(g, snapshot);
+		} finally {
+			snapshot.release();
+		}
+		Metrics.stop(Metrics.PAINT, start);
+		if (Metrics.isEnabled() && clip.intersects(METRICS_AREA)) {
+			drawMetrics(g);
+		}
+	}
 
-		drawFields(g);
-		drawEnemies(g);
-		drawPlayer(g);
+	/**
+	 * Draws the summary of all measurements in the top left corner.
+	 *
+	 * @param g the Graphics context to draw on
+	 */
+	private void drawMetrics(Graphics g) {
+		String[] lines = Metrics.summary();
+		g.setFont(METRICS_FONT);
+		int lineHeight = g.getFontMetrics().getHeight();
+		g.setColor(METRICS_BACKGROUND);
+		g.fillRect(METRICS_AREA.x, METRICS_AREA.y, METRICS_AREA.width, lines.length * lineHeight + 8);
+		g.setColor(Color.WHITE);
+		for (int i = 0; i < lines.length; i++) {
+			g.drawString(lines[i], METRICS_AREA.x + 4, METRICS_AREA.y + 4 + (i + 1) * lineHeight - 3);
+		}
 	}
 
 	/**
-	 * Draws all fields (walls, dots, empty, start, goal) of the maze.
+	 * Returns the image holding the background and all walls, and renders it
+	 * again if the world, its walls or the field size changed since it was last
+	 * rendered.
+	 *
+	 * @param source the snapshots of the world being painted
+	 * @param snapshot the snapshot being painted
+	 * @return the wall layer
+	 */
+	private BufferedImage getWallLayer(SnapshotBuffer source, WorldSnapshot snapshot) {
+		if (wallLayer == null || wallLayerSource != source || wallLayerVersion != snapshot.getWallVersion()
+				|| !wallLayerField.equals(fieldDimension)) {
+			if (wallLayer == null) {
+				// A compatible image can be cached by the graphics hardware
+				GraphicsConfiguration config = getGraphicsConfiguration();
+				wallLayer = config != null
+						? config.createCompatibleImage(WIDTH, HEIGHT, Transparency.OPAQUE)
+						: new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+			}
+			Graphics2D g = wallLayer.createGraphics();
+			g.setColor(Color.BLACK);
+			g.fillRect(0, 0, WIDTH, HEIGHT);
+			g.setColor(Color.BLUE);
+			g.setStroke(WALL_STROKE);
+			int w = fieldDimension.width;
+			int h = fieldDimension.height;
+			for (int y = 0; y < snapshot.getHeight(); y++) {
+				for (int x = 0; x < snapshot.getWidth(); x++) {
+					if (snapshot.isWall(x, y)) {
+						drawWall(g, x * w, y * h, w, h);
+					}
+				}
+			}
+			g.dispose();
+			wallLayerSource = source;
+			wallLayerVersion = snapshot.getWallVersion();
+			wallLayerField.setSize(fieldDimension);
+		}
+		return wallLayer;
+	}
+
+	/**
+	 * Draws the dots, start and goal of all fields that lie within the current
+	 * clip. Background and walls come from the wall layer.
 	 *
 	 * @param g the Graphics context
+	 * @param snapshot the snapshot being painted
 	 */
-	private void drawFields(Graphics g) {
-		var fields = world.getFields();
+	private void drawFields(Graphics g, WorldSnapshot snapshot) {
 		int w = fieldDimension.width;
 		int h = fieldDimension.height;
-		for (int x = 0; x < world.getWidth(); x++) {
-			for (int y = 0; y < world.getHeight(); y++) {
+		// Range of fields touched by the clip
+		int minX = Math.max(0, clip.x / w);
+		int minY = Math.max(0, clip.y / h);
+		int maxX = Math.min(snapshot.getWidth() - 1, (clip.x + clip.width - 1) / w);
+		int maxY = Math.min(snapshot.getHeight() - 1, (clip.y + clip.height - 1) / h);
+		for (int x = minX; x <= maxX; x++) {
+			for (int y = minY; y <= maxY; y++) {
 				int px = x * w;
 				int py = y * h;
-				switch (fields[x][y]) {
-					case WALL:
-						drawWall(g, px, py, w, h);
-						break;
-					case DOT:
-						drawDot(g, px, py, w, h);
-						break;
-					case EMPTY:
-					default:
-						g.setColor(Color.BLACK);
-						g.fillRect(px, py, w, h);
-						break;
+				if (snapshot.getCell(x, y) == Grid.DOT) {
+					drawDot(g, px, py, w, h);
 				}
-				if (x == world.getStartX() && y == world.getStartY()) {
+				if (x == snapshot.getStartX() && y == snapshot.getStartY()) {
 					drawStart(g, px, py, w, h);
 				}
-				if (x == world.getGoalX() && y == world.getGoalY()) {
+				if (x == snapshot.getGoalX() && y == snapshot.getGoalY()) {
 					drawGoal(g, px, py, w, h);
 				}
 			}
@@ -131,7 +252,8 @@ public class GraphicView extends JPanel implements View {
 	}
 
 	/**
-	 * Draws a wall at the given position.
+	 * Draws a wall at the given position. The color and stroke must already be
+	 * set on the Graphics context.
 	 *
 	 * @param g the Graphics context
 	 * @param x the x position in pixels
@@ -139,19 +261,15 @@ public class GraphicView extends JPanel implements View {
 	 * @param w the width of the wall
 	 * @param h the height of the wall
 	 */
-	private void drawWall(Graphics g, int x, int y, int w, int h) {
+	private void drawWall(Graphics2D g, int x, int y, int w, int h) {
 		int margin = Math.max(3, w / 8);
 		int arc = Math.max(8, w / 3);
 		int wallX = x + margin;
 		int wallY = y + margin;
 		int wallW = w - 2 * margin;
 		int wallH = h - 2 * margin;
-		g.setColor(Color.BLACK);
-		((Graphics2D) g).fillRoundRect(wallX, wallY, wallW, wallH, arc, arc);
-		g.setColor(Color.BLUE);
-		((Graphics2D) g).setStroke(new java.awt.BasicStroke(0.8f));
-		((Graphics2D) g).drawRoundRect(wallX, wallY, wallW, wallH, arc, arc);
-		((Graphics2D) g).setStroke(new java.awt.BasicStroke(1));
+		// The inside stays black, the background already is
+		g.drawRoundRect(wallX, wallY, wallW, wallH, arc, arc);
 	}
 
 	/**
@@ -164,9 +282,7 @@ public class GraphicView extends JPanel implements View {
 	 * @param h the height of the field
 	 */
 	private void drawDot(Graphics g, int x, int y, int w, int h) {
-		g.setColor(Color.BLACK);
-		g.fillRect(x, y, w, h);
-		g.setColor(new Color(255, 182, 193));
+		g.setColor(DOT_COLOR);
 		int dotW = w / 6;
 		int dotH = h / 6;
 		g.fillRect(x + (w - dotW) / 2, y + (h - dotH) / 2, dotW, dotH);
@@ -201,20 +317,22 @@ public class GraphicView extends JPanel implements View {
 	}
 
 	/**
-	 * Draws all enemies on the board.
+	 * Draws all enemies on the board, on their way from their previous field.
 	 *
 	 * @param g the Graphics context
+	 * @param snapshot the snapshot being painted
 	 */
-	private void drawEnemies(Graphics g) {
+	private void drawEnemies(Graphics g, WorldSnapshot snapshot) {
 		int w = fieldDimension.width;
 		int h = fieldDimension.height;
-		for (var enemy : world.getEnemies()) {
-			int ex = enemy.getX() * w;
-			int ey = enemy.getY() * h;
-			BufferedImage enemyImg = enemyImages.get(enemy.getName());
-			if (enemyImg != null) {
-				g.drawImage(enemyImg, ex, ey, w, h, null);
-			} else {
+		double alpha = interpolation;
+		for (int i = 0; i < snapshot.getEnemyCount(); i++) {
+			int ex = interpolate(snapshot.getPreviousEnemyX(i), snapshot.getEnemyX(i), w, alpha);
+			int ey = interpolate(snapshot.getPreviousEnemyY(i), snapshot.getEnemyY(i), h, alpha);
+			if (!isInClip(ex, ey, w, h)) {
+				continue; // Nothing to draw outside of the dirty region
+			}
+			if (!sprites.drawEnemy(g, snapshot.getEnemyName(i), ex, ey)) {
 				g.setColor(Color.PINK);
 				g.fillOval(ex + w/6, ey + h/6, 2*w/3, 2*h/3);
 			}
@@ -222,53 +340,209 @@ public class GraphicView extends JPanel implements View {
 	}
 
 	/**
-	 * Draws the player on the board.
+	 * Checks whether the given rectangle overlaps the part of the view that is
+	 * being painted.
+	 *
+	 * @param x the x position in pixels
+	 * @param y the y position in pixels
+	 * @param w the width in pixels
+	 * @param h the height in pixels
+	 * @return true if the rectangle touches the clip
+	 */
+	private boolean isInClip(int x, int y, int w, int h) {
+		return x < clip.x + clip.width && clip.x < x + w && y < clip.y + clip.height && clip.y < y + h;
+	}
+
+	/**
+	 * Draws the player on the board, on its way from its previous field.
 	 *
 	 * @param g the Graphics context
+	 * @param snapshot the snapshot being painted
 	 */
-	private void drawPlayer(Graphics g) {
-		if (playerImage != null) {
-			Graphics2D g2d = (Graphics2D) g.create();
-			int centerX = player.x + player.width / 2;
-			int centerY = player.y + player.height / 2;
-			double angle = 0;
-			if (world != null && world.getPlayerDirection() != null) {
-				switch (world.getPlayerDirection()) {
-					case RIGHT: angle = 0; break;
-					case DOWN:  angle = Math.PI / 2; break;
-					case LEFT:  angle = Math.PI; break;
-					case UP:    angle = -Math.PI / 2; break;
-					case NONE:  angle = 0; break;
-				}
-			}
-			g2d.rotate(angle, centerX, centerY);
-			g2d.drawImage(
-				playerImage,
-				player.x, player.y,
-				player.width, player.height,
-				null
-			);
-			g2d.dispose();
-		} else {
+	private void drawPlayer(Graphics g, WorldSnapshot snapshot) {
+		double alpha = interpolation;
+		int w = fieldDimension.width;
+		int h = fieldDimension.height;
+		int px = interpolate(snapshot.getPreviousPlayerX(), snapshot.getPlayerX(), w, alpha);
+		int py = interpolate(snapshot.getPreviousPlayerY(), snapshot.getPlayerY(), h, alpha);
+		// The atlas holds the player already rotated into every direction
+		if (!sprites.drawPlayer(g, snapshot.getPlayerDirection(), px, py)) {
 			g.setColor(Color.YELLOW);
-			g.fillArc(player.x, player.y, player.width, player.height, 30, 300);
+			g.fillArc(px, py, w, h, 30, 300);
+		}
+	}
+
+	/**
+	 * Returns the pixel position of a sprite on its way between two fields.
+	 *
+	 * @param from the old field coordinate
+	 * @param to the new field coordinate
+	 * @param size the field size in pixels
+	 * @param alpha how far the sprite has moved, from 0 to 1
+	 * @return the pixel coordinate
+	 */
+	private static int interpolate(int from, int to, int size, double alpha) {
+		if (Math.abs(to - from) > 1) {
+			return to * size; // Wrapped around the board, jump instead of sliding across
+		}
+		return (int) Math.round((from + (to - from) * alpha) * size);
+	}
+
+	/**
+	 * Sets how far the sprites have moved between the last two updates and
+	 * repaints the fields of all moving sprites. Called by the game loop for
+	 * every frame.
+	 *
+	 * @param alpha the progress from 0 (old field) to 1 (new field)
+	 */
+	public void setInterpolation(double alpha) {
+		interpolation = Math.min(1.0, Math.max(0.0, alpha));
+		if (fromPlayerX != toPlayerX || fromPlayerY != toPlayerY) {
+			repaintField(fromPlayerX, fromPlayerY);
+			repaintField(toPlayerX, toPlayerY);
+		}
+		int[] from = fromEnemies;
+		int[] to = toEnemies;
+		for (int i = 0; i + 1 < to.length; i += 2) {
+			if (from[i] != to[i] || from[i + 1] != to[i + 1]) {
+				repaintField(from[i], from[i + 1]);
+				repaintField(to[i], to[i + 1]);
+			}
 		}
 	}
 
 	/**
 	 * Updates the view with the new world state and repaints the component.
+	 * Only the fields the player or an enemy left or entered since the last
+	 * update are repainted. A new world is repainted completely.
 	 *
 	 * @param world the updated world
 	 */
 	@Override
 	public void update(World world) {
+		var enemies = world.getEnemies();
+		boolean repaintAll = this.world != world || toEnemies.length != 2 * enemies.size();
+		if (this.world != world) {
+			synchronized (dirtyLock) {
+				// The fields of the old world are covered by the full repaint
+				dirtyMarks.clear();
+				dirtyCount = 0;
+				dirtyWidth = world.getWidth();
+			}
+		}
 		this.world = world;
-		player.setSize(fieldDimension);
-		player.setLocation(
-			(int) (world.getPlayerX() * fieldDimension.width),
-			(int) (world.getPlayerY() * fieldDimension.height)
-		);
-		repaint();
+		snapshots = world.getSnapshots();
+		// The positions of the last update become the starting points of the sprites
+		int[] from = repaintAll ? new int[2 * enemies.size()] : toEnemies;
+		int[] to = repaintAll ? new int[2 * enemies.size()] : fromEnemies;
+		for (int i = 0; i < enemies.size(); i++) {
+			to[2 * i] = enemies.get(i).getX();
+			to[2 * i + 1] = enemies.get(i).getY();
+		}
+		if (repaintAll) {
+			System.arraycopy(to, 0, from, 0, to.length);
+			toPlayerX = world.getPlayerX();
+			toPlayerY = world.getPlayerY();
+		}
+		fromEnemies = from;
+		toEnemies = to;
+		fromPlayerX = toPlayerX;
+		fromPlayerY = toPlayerY;
+		toPlayerX = world.getPlayerX();
+		toPlayerY = world.getPlayerY();
+		if (repaintAll) {
+			repaint();
+		} else {
+			if (Metrics.isEnabled()) {
+				repaint(METRICS_AREA);
+			}
+			// The old player field (where a dot may have been eaten) and the new one
+			repaintField(fromPlayerX, fromPlayerY);
+			repaintField(toPlayerX, toPlayerY);
+			for (int i = 0; i < to.length; i += 2) {
+				if (from[i] != to[i] || from[i + 1] != to[i + 1]) {
+					repaintField(from[i], from[i + 1]);
+					repaintField(to[i], to[i + 1]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Updates the view with the new world state. In addition to the fields of
+	 * the sprites, all fields listed in the change set are repainted, and the
+	 * whole board if the start or goal moved.
+	 *
+	 * @param world the updated world
+	 * @param changes what changed since the last update
+	 */
+	@Override
+	public void update(World world, ChangeSet changes) {
+		update(world);
+		if (changes.has(ChangeSet.START_GOAL)) {
+			repaint(); // The old start and goal fields are not known anymore
+			return;
+		}
+		int width = world.getWidth();
+		for (int i = 0; i < changes.getCellCount(); i++) {
+			int cell = changes.getCell(i);
+			repaintField(cell % width, cell / width);
+		}
+	}
+
+	/**
+	 * Schedules a repaint of the given field only. Swing would merge the
+	 * repaints of fields far apart (e.g. the player and an enemy in opposite
+	 * corners) into one rectangle covering most of the board, so the dirty
+	 * fields are collected here and painted one by one by
+	 * {@link #paintDirtyFields()}.
+	 *
+	 * @param x the x position of the field
+	 * @param y the y position of the field
+	 */
+	private void repaintField(int x, int y) {
+		boolean first;
+		synchronized (dirtyLock) {
+			int field = y * dirtyWidth + x;
+			if (dirtyMarks.get(field)) {
+				return;
+			}
+			dirtyMarks.set(field);
+			if (dirtyCount == dirtyFields.length) {
+				dirtyFields = Arrays.copyOf(dirtyFields, 2 * dirtyCount);
+			}
+			first = dirtyCount == 0;
+			dirtyFields[dirtyCount++] = field;
+		}
+		if (first) {
+			SwingUtilities.invokeLater(paintDirty);
+		}
+	}
+
+	/**
+	 * Paints every dirty field on its own, so only those fields are drawn.
+	 * Runs on the event dispatch thread.
+	 */
+	private void paintDirtyFields() {
+		int[] fields;
+		int count;
+		int width;
+		synchronized (dirtyLock) {
+			fields = dirtyFields;
+			count = dirtyCount;
+			width = dirtyWidth;
+			dirtyFields = paintingFields;
+			paintingFields = fields;
+			dirtyCount = 0;
+			for (int i = 0; i < count; i++) {
+				dirtyMarks.clear(fields[i]);
+			}
+		}
+		int w = fieldDimension.width;
+		int h = fieldDimension.height;
+		for (int i = 0; i < count; i++) {
+			paintImmediately(fields[i] % width * w, fields[i] / width * h, w, h);
+		}
 	}
 
 }
@@ -0,0 +1,182 @@
+package view;
+
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import model.Direction;
+
+/**
+ * All sprites of the game in one image, ready to be drawn without any
+ * transformation.
+ * <p>
+ * The sprite images from {@code /resources} are read once per program run.
+ * For every field size an atlas is built that holds all of them side by side,
+ * already scaled to the field size, and the player four times, already rotated
+ * for every {@link Direction}. The atlas is created in a format compatible
+ * with the screen, so drawing a sprite is a plain copy of a rectangle.
+ */
+public class SpriteAtlas {
+
+	/** The sprite images of the enemies and the names used for them. */
+	private static final String[][] ENEMY_SPRITES = {
+		{"red", "/resources/redGhost.png"},
+		{"pink", "/resources/pinkGhost.png"},
+		{"cyan", "/resources/cyanGhost.png"},
+		{"orange", "/resources/orangeGhost.png"},
+		{"afraid", "/resources/afraidGhost.png"},
+		{"afraid2", "/resources/afraidGhost2.png"},
+	};
+	/** The sprite image of the player, looking to the right. */
+	private static final String PLAYER_SPRITE = "/resources/pacman.png";
+	/** The directions the player is pre-rotated for, in the order of the atlas. */
+	private static final Direction[] PLAYER_DIRECTIONS = {Direction.RIGHT, Direction.DOWN, Direction.LEFT, Direction.UP};
+
+	/** The image of the player as read from the file, null if it is missing. */
+	private static BufferedImage playerSource;
+	/** The images of the enemies as read from the files, by name. */
+	private static Map<String, BufferedImage> enemySources;
+
+	/** The size of one sprite. */
+	private final Dimension size;
+	/** All sprites side by side: first the player in all directions, then the enemies. */
+	private final BufferedImage atlas;
+	/** The column of the player looking into a direction, by direction ordinal; -1 without a player image. */
+	private final int[] playerColumns = new int[Direction.values().length];
+	/** The column of every enemy in the atlas, by name. */
+	private final Map<String, Integer> enemyColumns = new HashMap<>();
+
+	/**
+	 * Builds the atlas for the given field size.
+	 *
+	 * @param config the configuration of the screen, or null if there is none
+	 * @param fieldDimension the size of one field, which every sprite is scaled to
+	 */
+	public SpriteAtlas(GraphicsConfiguration config, Dimension fieldDimension) {
+		loadSources();
+		this.size = new Dimension(fieldDimension);
+		int columns = (playerSource != null ? PLAYER_DIRECTIONS.length : 0) + enemySources.size();
+		int width = Math.max(1, columns * size.width);
+		// A compatible image can be cached by the graphics hardware
+		atlas = config != null
+				? config.createCompatibleImage(width, size.height, Transparency.TRANSLUCENT)
+				: new BufferedImage(width, size.height, BufferedImage.TYPE_INT_ARGB_PRE);
+
+		Graphics2D g = atlas.createGraphics();
+		// Scaling and rotating happens only once, so it may as well look good
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+		g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+		int column = 0;
+		Arrays.fill(playerColumns, -1);
+		if (playerSource != null) {
+			for (int i = 0; i < PLAYER_DIRECTIONS.length; i++) {
+				int x = column * size.width;
+				Graphics2D rotated = (Graphics2D) g.create();
+				rotated.clipRect(x, 0, size.width, size.height);
+				rotated.rotate(i * Math.PI / 2, x + size.width / 2.0, size.height / 2.0);
+				rotated.drawImage(playerSource, x, 0, size.width, size.height, null);
+				rotated.dispose();
+				playerColumns[PLAYER_DIRECTIONS[i].ordinal()] = column++;
+			}
+			// Standing still looks to the right
+			playerColumns[Direction.NONE.ordinal()] = playerColumns[Direction.RIGHT.ordinal()];
+		}
+		for (Map.Entry<String, BufferedImage> enemy : enemySources.entrySet()) {
+			g.drawImage(enemy.getValue(), column * size.width, 0, size.width, size.height, null);
+			enemyColumns.put(enemy.getKey(), column++);
+		}
+		g.dispose();
+	}
+
+	/**
+	 * Reads the sprite images from the resources, the first time only.
+	 */
+	private static synchronized void loadSources() {
+		if (enemySources != null) {
+			return;
+		}
+		try {
+			playerSource = ImageIO.read(SpriteAtlas.class.getResource(PLAYER_SPRITE));
+		} catch (IOException | IllegalArgumentException e) {
+			System.err.println("Could not load player image: " + e.getMessage());
+		}
+		Map<String, BufferedImage> enemies = new HashMap<>();
+		for (String[] sprite : ENEMY_SPRITES) {
+			try {
+				enemies.put(sprite[0], ImageIO.read(SpriteAtlas.class.getResource(sprite[1])));
+			} catch (IOException | IllegalArgumentException e) {
+				System.err.println("Could not load enemy image: " + e.getMessage());
+			}
+		}
+		enemySources = enemies;
+	}
+
+	/**
+	 * Checks whether the sprites of this atlas have the given size.
+	 *
+	 * @param fieldDimension the size of one field
+	 * @return true if the atlas can be used for fields of that size
+	 */
+	public boolean fits(Dimension fieldDimension) {
+		return size.equals(fieldDimension);
+	}
+
+	/**
+	 * Draws the player looking into the given direction.
+	 *
+	 * @param g the Graphics context
+	 * @param direction the direction the player looks in, may be null
+	 * @param x the x position in pixels
+	 * @param y the y position in pixels
+	 * @return false if there is no player image and nothing was drawn
+	 */
+	public boolean drawPlayer(Graphics g, Direction direction, int x, int y) {
+		int column = playerColumns[(direction != null ? direction : Direction.RIGHT).ordinal()];
+		if (column < 0) {
+			return false;
+		}
+		draw(g, column, x, y);
+		return true;
+	}
+
+	/**
+	 * Draws an enemy.
+	 *
+	 * @param g the Graphics context
+	 * @param name the name or type of the enemy (e.g. "red")
+	 * @param x the x position in pixels
+	 * @param y the y position in pixels
+	 * @return false if there is no image for the enemy and nothing was drawn
+	 */
+	public boolean drawEnemy(Graphics g, String name, int x, int y) {
+		Integer column = enemyColumns.get(name);
+		if (column == null) {
+			return false;
+		}
+		draw(g, column, x, y);
+		return true;
+	}
+
+	/**
+	 * Copies one sprite of the atlas to the given position, without scaling.
+	 *
+	 * @param g the Graphics context
+	 * @param column the column of the sprite in the atlas
+	 * @param x the x position in pixels
+	 * @param y the y position in pixels
+	 */
+	private void draw(Graphics g, int column, int x, int y) {
+		int sx = column * size.width;
+		g.drawImage(atlas, x, y, x + size.width, y + size.height, sx, 0, sx + size.width, size.height, null);
+	}
+}
@@ -1,5 +1,6 @@
 package view;
 
+import model.ChangeSet;
 import model.World;
 
 /**
@@ -15,4 +16,16 @@ public interface View {
 	 */
 	void update(World world); // This method will be called by the model (World) to notify the view of changes
 
+	/**
+	 * Called once at the end of every change of the world, with a description
+	 * of what changed. By default this simply calls {@link #update(World)}.
+	 * The change set is reused by the world and must not be kept.
+	 *
+	 * @param world the {@link World} object which called this method.
+	 * @param changes what changed since the last update.
+	 */
+	default void update(World world, ChangeSet changes) {
+		update(world);
+	}
+
 }